@@ -24,12 +24,15 @@ package org.jboss.seam.forge.spec.jpa;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Named;
 import javax.persistence.Entity;
 
 import org.jboss.seam.forge.parser.JavaParser;
+import org.jboss.seam.forge.parser.ParseHandler;
 import org.jboss.seam.forge.parser.java.JavaClass;
 import org.jboss.seam.forge.parser.java.JavaSource;
 import org.jboss.seam.forge.project.PackagingType;
@@ -109,25 +112,49 @@ public class PersistenceFacet extends BaseFacet
 
    private List<JavaClass> findEntitiesInFolder(final DirectoryResource packageFile)
    {
+      List<File> files = new ArrayList<File>();
+      findJavaFilesInFolder(packageFile, files);
+
+      final Map<File, JavaClass> entities = new HashMap<File, JavaClass>();
+      JavaParser.parse(files, new ParseHandler()
+      {
+         @Override
+         public void parsed(final File file, final JavaSource<?> javaClass)
+         {
+            if (javaClass.hasAnnotation(Entity.class) && javaClass.isClass())
+            {
+               entities.put(file, (JavaClass) javaClass);
+            }
+         }
+
+         @Override
+         public void failed(final File file, final Exception e)
+         {
+            // the entity list would otherwise silently be incomplete
+            throw new IllegalStateException("Could not parse [" + file.getAbsolutePath() + "]", e);
+         }
+      });
+
       List<JavaClass> result = new ArrayList<JavaClass>();
+      for (File file : files)
+      {
+         if (entities.containsKey(file))
+         {
+            result.add(entities.get(file));
+         }
+      }
+      return result;
+   }
+
+   private void findJavaFilesInFolder(final DirectoryResource packageFile, final List<File> result)
+   {
       if (packageFile.exists())
       {
          for (Resource<?> source : packageFile.listResources())
          {
             if (source instanceof JavaResource)
             {
-               try
-               {
-                  JavaSource<?> javaClass = ((JavaResource) source).getJavaSource();
-                  if (javaClass.hasAnnotation(Entity.class) && javaClass.isClass())
-                  {
-                     result.add((JavaClass) javaClass);
-                  }
-               }
-               catch (FileNotFoundException e)
-               {
-                  throw new IllegalStateException(e);
-               }
+               result.add(((JavaResource) source).getUnderlyingResourceObject());
             }
          }
 
@@ -135,12 +162,10 @@ public class PersistenceFacet extends BaseFacet
          {
             if (source instanceof DirectoryResource)
             {
-               List<JavaClass> subResults = findEntitiesInFolder((DirectoryResource) source);
-               result.addAll(subResults);
+               findJavaFilesInFolder((DirectoryResource) source, result);
             }
          }
       }
-      return result;
    }
 
    @Override
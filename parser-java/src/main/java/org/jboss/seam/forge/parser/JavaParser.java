@@ -27,7 +27,19 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
@@ -58,25 +70,142 @@ import org.jboss.seam.forge.parser.java.impl.JavaInterfaceImpl;
  */
 public abstract class JavaParser
 {
+   @SuppressWarnings("rawtypes")
+   private static final Map COMPILER_OPTIONS = createCompilerOptions();
+
+   private static final ParseCache cache = new ParseCache();
+
+   private static ExecutorService executor;
 
    /**
     * Open the given {@link File}, parsing its contents into a new {@link JavaClass} instance.
     */
    public static JavaSource<?> parse(final File file) throws FileNotFoundException
+   {
+      return parse(file, ParseMode.STRUCTURAL);
+   }
+
+   /**
+    * Open the given {@link File}, parsing its contents into a new {@link JavaClass} instance using the given
+    * {@link ParseMode}.
+    */
+   public static JavaSource<?> parse(final File file, final ParseMode mode) throws FileNotFoundException
    {
       FileInputStream stream = new FileInputStream(file);
-      return parse(stream);
+      return parse(stream, mode);
+   }
+
+   /**
+    * Parse all of the given {@link File}s concurrently, passing each result to the given {@link ParseHandler} as soon
+    * as it is available. Files that cannot be parsed are reported to {@link ParseHandler#failed(File, Exception)}
+    * without aborting the rest of the batch. This method returns once every file has been handled.
+    */
+   public static void parse(final Collection<File> files, final ParseHandler handler)
+   {
+      CompletionService<ParseResult> completion = new ExecutorCompletionService<ParseResult>(getExecutor());
+      List<Future<ParseResult>> futures = new ArrayList<Future<ParseResult>>(files.size());
+      try
+      {
+         for (final File file : files)
+         {
+            futures.add(completion.submit(new Callable<ParseResult>()
+            {
+               @Override
+               public ParseResult call() throws Exception
+               {
+                  try
+                  {
+                     return new ParseResult(file, parse(file), null);
+                  }
+                  catch (Exception e)
+                  {
+                     return new ParseResult(file, null, e);
+                  }
+               }
+            }));
+         }
+
+         for (int i = 0; i < futures.size(); i++)
+         {
+            ParseResult result = completion.take().get();
+            if (result.error == null)
+            {
+               handler.parsed(result.file, result.source);
+            }
+            else
+            {
+               handler.failed(result.file, result.error);
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new ParserException("Interrupted while parsing files", e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new ParserException(e.getCause());
+      }
+      finally
+      {
+         for (Future<ParseResult> future : futures)
+         {
+            future.cancel(true);
+         }
+      }
+   }
+
+   private static synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-java-parser");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   private static class ParseResult
+   {
+      private final File file;
+      private final JavaSource<?> source;
+      private final Exception error;
+
+      public ParseResult(final File file, final JavaSource<?> source, final Exception error)
+      {
+         this.file = file;
+         this.source = source;
+         this.error = error;
+      }
    }
 
    /**
     * Read the given {@link InputStream} and parse the data into a new {@link JavaClass} instance.
     */
    public static JavaSource<?> parse(final InputStream data)
+   {
+      return parse(data, ParseMode.STRUCTURAL);
+   }
+
+   /**
+    * Read the given {@link InputStream} and parse the data into a new {@link JavaClass} instance using the given
+    * {@link ParseMode}.
+    */
+   public static JavaSource<?> parse(final InputStream data, final ParseMode mode)
    {
       try
       {
          char[] source = Util.getInputStreamAsCharArray(data, data.available(), "ISO8859_1");
-         return parse(source);
+         return parse(new String(source), mode);
       }
       catch (Exception e)
       {
@@ -109,20 +238,30 @@ public abstract class JavaParser
    /**
     * Parse the given String data into a new {@link JavaClass} instance.
     */
-   @SuppressWarnings({ "rawtypes", "unchecked" })
    public static JavaSource<?> parse(final String data)
    {
-      Document document = new Document(data);
-      ASTParser parser = ASTParser.newParser(AST.JLS3);
-
-      parser.setSource(document.get().toCharArray());
-      Map options = JavaCore.getOptions();
-      options.put(CompilerOptions.OPTION_Source, CompilerOptions.VERSION_1_5);
-      parser.setCompilerOptions(options);
+      return parse(data, ParseMode.STRUCTURAL);
+   }
 
-      parser.setResolveBindings(true);
-      parser.setKind(ASTParser.K_COMPILATION_UNIT);
-      CompilationUnit unit = (CompilationUnit) parser.createAST(null);
+   /**
+    * Parse the given String data into a new {@link JavaClass} instance using the given {@link ParseMode}.
+    */
+   public static JavaSource<?> parse(final String data, final ParseMode mode)
+   {
+      Document document = new Document(data);
+      CompilationUnit unit;
+      if (mode == ParseMode.FULL)
+      {
+         unit = parseUnit(data, true);
+      }
+      else
+      {
+         unit = cache.get(data);
+         if (unit == null)
+         {
+            unit = cache.put(data, parseUnit(data, false));
+         }
+      }
       unit.recordModifications();
 
       TypeDeclarationFinderVisitor visitor = new TypeDeclarationFinderVisitor();
@@ -154,6 +293,25 @@ public abstract class JavaParser
       }
    }
 
+   private static CompilationUnit parseUnit(final String data, final boolean resolveBindings)
+   {
+      ASTParser parser = ASTParser.newParser(AST.JLS3);
+      parser.setSource(data.toCharArray());
+      parser.setCompilerOptions(COMPILER_OPTIONS);
+
+      parser.setResolveBindings(resolveBindings);
+      parser.setKind(ASTParser.K_COMPILATION_UNIT);
+      return (CompilationUnit) parser.createAST(null);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   private static Map createCompilerOptions()
+   {
+      Map options = JavaCore.getOptions();
+      options.put(CompilerOptions.OPTION_Source, CompilerOptions.VERSION_1_5);
+      return Collections.unmodifiableMap(options);
+   }
+
    /**
     * Create a new empty {@link JavaClass} instance.
     */
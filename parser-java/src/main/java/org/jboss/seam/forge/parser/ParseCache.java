@@ -0,0 +1,140 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.parser;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * A size-bounded, least-recently-used cache of parsed {@link CompilationUnit}s, keyed by source content. Cached units
+ * are never handed out directly; each caller receives a structural copy in a new {@link AST}, which is much cheaper
+ * than parsing the source again, and which may be freely modified without affecting the cache or other callers.
+ * <p>
+ * Units with syntax errors are not cached, since problems are not carried over to copies.
+ */
+final class ParseCache
+{
+   /**
+    * System property that overrides the maximum number of cached compilation units. A value of 0 disables the cache.
+    */
+   static final String CACHE_SIZE_PROPERTY = "seam.forge.parser.cacheSize";
+
+   private static final int DEFAULT_CACHE_SIZE = 1024;
+
+   /*
+    * Copied ASTs must look "unmodified" to JDT before modifications can be recorded on them, but the only way to tell
+    * JDT so is not public. If this hook cannot be found (e.g. on a different JDT version), caching is disabled.
+    */
+   private static final Method SET_ORIGINAL_MODIFICATION_COUNT = findModificationCountHook();
+
+   private final int maxSize;
+   private final Map<String, CompilationUnit> units;
+
+   ParseCache()
+   {
+      this(Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+   }
+
+   @SuppressWarnings("serial")
+   ParseCache(final int maxSize)
+   {
+      this.maxSize = SET_ORIGINAL_MODIFICATION_COUNT == null ? 0 : maxSize;
+      this.units = new LinkedHashMap<String, CompilationUnit>(16, 0.75f, true)
+      {
+         @Override
+         protected boolean removeEldestEntry(final Map.Entry<String, CompilationUnit> eldest)
+         {
+            return size() > ParseCache.this.maxSize;
+         }
+      };
+   }
+
+   private static Method findModificationCountHook()
+   {
+      try
+      {
+         Method method = AST.class.getDeclaredMethod("setOriginalModificationCount", long.class);
+         method.setAccessible(true);
+         return method;
+      }
+      catch (Exception e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * Return a private copy of the unit cached for the given source, or null if there is none.
+    */
+   CompilationUnit get(final String source)
+   {
+      CompilationUnit cached;
+      synchronized (this)
+      {
+         cached = units.get(source);
+      }
+      return cached == null ? null : copy(cached);
+   }
+
+   /**
+    * Cache the given freshly parsed unit, which must not yet be recording modifications, and return a private copy of
+    * it for the caller. If the unit cannot be cached, it is returned as is.
+    */
+   CompilationUnit put(final String source, final CompilationUnit unit)
+   {
+      if ((maxSize <= 0) || (unit.getProblems().length > 0))
+      {
+         return unit;
+      }
+
+      synchronized (this)
+      {
+         units.put(source, unit);
+      }
+      return copy(unit);
+   }
+
+   private CompilationUnit copy(final CompilationUnit cached)
+   {
+      AST ast = AST.newAST(cached.getAST().apiLevel());
+      CompilationUnit result;
+      synchronized (cached)
+      {
+         result = (CompilationUnit) ASTNode.copySubtree(ast, cached);
+      }
+
+      try
+      {
+         SET_ORIGINAL_MODIFICATION_COUNT.invoke(ast, ast.modificationCount());
+      }
+      catch (Exception e)
+      {
+         throw new IllegalStateException("Could not prepare copied compilation unit for modification", e);
+      }
+      return result;
+   }
+}
@@ -0,0 +1,46 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.parser;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.jboss.seam.forge.parser.java.JavaSource;
+
+/**
+ * Receives the results of {@link JavaParser#parse(Collection, ParseHandler)}, one file at a time, in the order in
+ * which parsing completes. All callbacks are made on the thread that started the batch, so implementations need not
+ * be thread-safe. An exception thrown by a callback abandons the rest of the batch and is thrown to the caller.
+ */
+public interface ParseHandler
+{
+   /**
+    * Called for every file that was parsed. The source may still contain syntax errors; see
+    * {@link JavaSource#getSyntaxErrors()}.
+    */
+   public void parsed(File file, JavaSource<?> source);
+
+   /**
+    * Called for every file that could not be read or parsed. The rest of the batch is not affected.
+    */
+   public void failed(File file, Exception e);
+}
@@ -66,7 +66,8 @@ public interface Importer<O>
    public <T extends JavaSource<?>> O addImports(T... types);
 
    /**
-    * Add an import for each of the given fully-qualified class names.
+    * Add an import for each of the given fully-qualified class names. Names that are already imported, or that occur
+    * more than once, are only imported once; all new imports are appended in a single operation.
     */
    public O addImports(final String... types);
 
@@ -23,7 +23,9 @@ package org.jboss.seam.forge.parser.java.impl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
@@ -62,6 +64,11 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
    private final Document document;
    protected CompilationUnit unit;
 
+   private AbstractTypeDeclaration declaration;
+
+   private Map<String, ImportDeclaration> importIndex;
+   private long importIndexModificationCount;
+
    public AbstractJavaSource(final Document document, final CompilationUnit unit)
    {
       this.document = document;
@@ -151,27 +158,29 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
    @SuppressWarnings("unchecked")
    public Import<O> addImport(final String className)
    {
-      Import<O> imprt = null;
-      if (!hasImport(className))
-      {
-         imprt = new ImportImpl(this).setName(className);
-         unit.imports().add(imprt.getInternal());
-      }
-      else
+      Map<String, ImportDeclaration> index = getImportIndex();
+      ImportDeclaration existing = index.get(className);
+      if (existing != null)
       {
-         imprt = getImport(className);
+         return new ImportImpl(this, existing);
       }
+
+      Import<O> imprt = new ImportImpl(this).setName(className);
+      unit.imports().add(imprt.getInternal());
+      index.put(className, (ImportDeclaration) imprt.getInternal());
+      importIndexModificationCount = getModificationCount();
       return imprt;
    }
 
    @Override
    public O addImports(final Class<?>... types)
    {
-      for (Class<?> type : types)
+      String[] names = new String[types.length];
+      for (int i = 0; i < types.length; i++)
       {
-         addImport(type.getName());
+         names[i] = types[i].getName();
       }
-      return (O) this;
+      return addImports(names);
    }
 
    @Override
@@ -185,11 +194,25 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
    };
 
    @Override
+   @SuppressWarnings("unchecked")
    public O addImports(final String... types)
    {
+      Map<String, ImportDeclaration> index = getImportIndex();
+      List<ImportDeclaration> added = new ArrayList<ImportDeclaration>(types.length);
       for (String type : types)
       {
-         addImport(type);
+         if (!index.containsKey(type))
+         {
+            ImportDeclaration imprt = (ImportDeclaration) new ImportImpl(this).setName(type).getInternal();
+            index.put(type, imprt);
+            added.add(imprt);
+         }
+      }
+
+      if (!added.isEmpty())
+      {
+         unit.imports().addAll(added);
+         importIndexModificationCount = getModificationCount();
       }
       return (O) this;
    }
@@ -207,13 +230,10 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
    @Override
    public Import<O> getImport(final String className)
    {
-      List<Import<O>> imports = getImports();
-      for (Import<O> imprt : imports)
+      ImportDeclaration imprt = getImportIndex().get(className);
+      if (imprt != null)
       {
-         if (imprt.getQualifiedName().equals(className))
-         {
-            return imprt;
-         }
+         return new ImportImpl(this, imprt);
       }
       return null;
    }
@@ -271,19 +291,16 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
    @Override
    public boolean hasImport(final String type)
    {
-      return getImport(type) != null;
+      return getImportIndex().containsKey(type);
    }
 
    @Override
    public O removeImport(final String name)
    {
-      for (Import<O> i : getImports())
+      Import<O> imprt = getImport(name);
+      if (imprt != null)
       {
-         if (i.getQualifiedName().equals(name))
-         {
-            removeImport(i);
-            break;
-         }
+         removeImport(imprt);
       }
       return (O) this;
    }
@@ -311,6 +328,31 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
       return (O) this;
    }
 
+   /**
+    * Return an index of the imports of this source by qualified name. If the same name is imported more than once, the
+    * first import is indexed. The index is rebuilt whenever the AST has been modified other than through
+    * {@link #addImport(String)} or {@link #addImports(String...)}, which keep it up to date themselves.
+    */
+   @SuppressWarnings("unchecked")
+   private Map<String, ImportDeclaration> getImportIndex()
+   {
+      if ((importIndex == null) || (importIndexModificationCount != getModificationCount()))
+      {
+         List<ImportDeclaration> imports = unit.imports();
+         importIndex = new HashMap<String, ImportDeclaration>(imports.size() * 2);
+         for (ImportDeclaration imprt : imports)
+         {
+            String name = imprt.getName().getFullyQualifiedName();
+            if (!importIndex.containsKey(name))
+            {
+               importIndex.put(name, imprt);
+            }
+         }
+         importIndexModificationCount = getModificationCount();
+      }
+      return importIndex;
+   }
+
    @Override
    public List<Member<O, ?>> getMembers()
    {
@@ -319,20 +361,36 @@ public abstract class AbstractJavaSource<O extends JavaSource<O>> implements
       return result;
    }
 
+   /**
+    * Return the type-declaration of this source. The declaration is looked up once, and then re-used for as long as it
+    * remains part of the compilation unit; it is only looked up again if the type itself has been replaced or removed.
+    */
    protected AbstractTypeDeclaration getBodyDeclaration()
    {
-      TypeDeclarationFinderVisitor typeDeclarationFinder = new TypeDeclarationFinderVisitor();
-      unit.accept(typeDeclarationFinder);
-      AbstractTypeDeclaration declaration = typeDeclarationFinder.getTypeDeclaration();
-      if (declaration == null)
+      if ((declaration == null) || (declaration.getRoot() != unit))
       {
-         throw new RuntimeException(
-                  "A type-declaration is required in order to complete the current operation, but no type-declaration exists in compilation unit: "
-                           + unit.toString());
+         TypeDeclarationFinderVisitor typeDeclarationFinder = new TypeDeclarationFinderVisitor();
+         unit.accept(typeDeclarationFinder);
+         declaration = typeDeclarationFinder.getTypeDeclaration();
+         if (declaration == null)
+         {
+            throw new RuntimeException(
+                     "A type-declaration is required in order to complete the current operation, but no type-declaration exists in compilation unit: "
+                              + unit.toString());
+         }
       }
       return declaration;
    }
 
+   /**
+    * Return the number of modifications made to the underlying AST so far. Views computed from the AST (such as lists
+    * of fields or methods) may be kept for as long as this value does not change.
+    */
+   protected long getModificationCount()
+   {
+      return unit.getAST().modificationCount();
+   }
+
    /*
     * Name modifiers
     */
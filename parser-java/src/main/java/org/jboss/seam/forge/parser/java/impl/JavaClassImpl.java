@@ -50,6 +50,11 @@ public class JavaClassImpl extends AbstractJavaSource<JavaClass> implements Java
 {
    private final ModifierAccessor modifiers = new ModifierAccessor();
 
+   private List<Field<JavaClass>> fields;
+   private long fieldsModificationCount;
+   private List<Method<JavaClass>> methods;
+   private long methodsModificationCount;
+
    public JavaClassImpl(final Document document, final CompilationUnit unit)
    {
       super(document, unit);
@@ -79,14 +84,19 @@ public class JavaClassImpl extends AbstractJavaSource<JavaClass> implements Java
    @Override
    public List<Field<JavaClass>> getFields()
    {
-      List<Field<JavaClass>> result = new ArrayList<Field<JavaClass>>();
-
-      for (FieldDeclaration field : ((TypeDeclaration) getBodyDeclaration()).getFields())
+      if ((fields == null) || (fieldsModificationCount != getModificationCount()))
       {
-         result.add(new FieldImpl<JavaClass>(this, field));
-      }
+         List<Field<JavaClass>> result = new ArrayList<Field<JavaClass>>();
+
+         for (FieldDeclaration field : ((TypeDeclaration) getBodyDeclaration()).getFields())
+         {
+            result.add(new FieldImpl<JavaClass>(this, field));
+         }
 
-      return Collections.unmodifiableList(result);
+         fields = Collections.unmodifiableList(result);
+         fieldsModificationCount = getModificationCount();
+      }
+      return fields;
    }
 
    @Override
@@ -175,17 +185,22 @@ public class JavaClassImpl extends AbstractJavaSource<JavaClass> implements Java
    @Override
    public List<Method<JavaClass>> getMethods()
    {
-      List<Method<JavaClass>> result = new ArrayList<Method<JavaClass>>();
+      if ((methods == null) || (methodsModificationCount != getModificationCount()))
+      {
+         List<Method<JavaClass>> result = new ArrayList<Method<JavaClass>>();
 
-      MethodFinderVisitor methodFinderVisitor = new MethodFinderVisitor();
-      unit.accept(methodFinderVisitor);
+         MethodFinderVisitor methodFinderVisitor = new MethodFinderVisitor();
+         unit.accept(methodFinderVisitor);
 
-      List<MethodDeclaration> methods = methodFinderVisitor.getMethods();
-      for (MethodDeclaration methodDeclaration : methods)
-      {
-         result.add(new MethodImpl<JavaClass>(this, methodDeclaration));
+         for (MethodDeclaration methodDeclaration : methodFinderVisitor.getMethods())
+         {
+            result.add(new MethodImpl<JavaClass>(this, methodDeclaration));
+         }
+
+         methods = Collections.unmodifiableList(result);
+         methodsModificationCount = getModificationCount();
       }
-      return Collections.unmodifiableList(result);
+      return methods;
    }
 
    @Override
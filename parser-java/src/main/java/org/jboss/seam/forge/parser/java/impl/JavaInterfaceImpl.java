@@ -44,6 +44,10 @@ import org.jboss.seam.forge.parser.java.ast.MethodFinderVisitor;
  */
 public class JavaInterfaceImpl extends AbstractJavaSource<JavaInterface> implements JavaInterface
 {
+   private List<Field<JavaInterface>> fields;
+   private long fieldsModificationCount;
+   private List<Method<JavaInterface>> methods;
+   private long methodsModificationCount;
 
    public JavaInterfaceImpl(final Document document, final CompilationUnit unit)
    {
@@ -74,14 +78,19 @@ public class JavaInterfaceImpl extends AbstractJavaSource<JavaInterface> impleme
    @Override
    public List<Field<JavaInterface>> getFields()
    {
-      List<Field<JavaInterface>> result = new ArrayList<Field<JavaInterface>>();
-
-      for (FieldDeclaration field : ((TypeDeclaration) getBodyDeclaration()).getFields())
+      if ((fields == null) || (fieldsModificationCount != getModificationCount()))
       {
-         result.add(new FieldImpl<JavaInterface>(this, field));
-      }
+         List<Field<JavaInterface>> result = new ArrayList<Field<JavaInterface>>();
+
+         for (FieldDeclaration field : ((TypeDeclaration) getBodyDeclaration()).getFields())
+         {
+            result.add(new FieldImpl<JavaInterface>(this, field));
+         }
 
-      return Collections.unmodifiableList(result);
+         fields = Collections.unmodifiableList(result);
+         fieldsModificationCount = getModificationCount();
+      }
+      return fields;
    }
 
    @Override
@@ -170,17 +179,22 @@ public class JavaInterfaceImpl extends AbstractJavaSource<JavaInterface> impleme
    @Override
    public List<Method<JavaInterface>> getMethods()
    {
-      List<Method<JavaInterface>> result = new ArrayList<Method<JavaInterface>>();
+      if ((methods == null) || (methodsModificationCount != getModificationCount()))
+      {
+         List<Method<JavaInterface>> result = new ArrayList<Method<JavaInterface>>();
 
-      MethodFinderVisitor methodFinderVisitor = new MethodFinderVisitor();
-      unit.accept(methodFinderVisitor);
+         MethodFinderVisitor methodFinderVisitor = new MethodFinderVisitor();
+         unit.accept(methodFinderVisitor);
 
-      List<MethodDeclaration> methods = methodFinderVisitor.getMethods();
-      for (MethodDeclaration methodDeclaration : methods)
-      {
-         result.add(new MethodImpl<JavaInterface>(this, methodDeclaration));
+         for (MethodDeclaration methodDeclaration : methodFinderVisitor.getMethods())
+         {
+            result.add(new MethodImpl<JavaInterface>(this, methodDeclaration));
+         }
+
+         methods = Collections.unmodifiableList(result);
+         methodsModificationCount = getModificationCount();
       }
-      return Collections.unmodifiableList(result);
+      return methods;
    }
 
    @Override
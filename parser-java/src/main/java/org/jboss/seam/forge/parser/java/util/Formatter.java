@@ -22,59 +22,205 @@
 
 package org.jboss.seam.forge.parser.java.util;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
 import org.eclipse.text.edits.TextEdit;
-import org.jboss.seam.forge.parser.java.JavaClass;
-
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.util.Properties;
+import org.jboss.seam.forge.parser.ParserException;
+import org.jboss.seam.forge.parser.java.JavaSource;
 
 /**
+ * Formats Java sources using the Eclipse code formatter. Formatter options are read once, and each thread re-uses its
+ * own {@link CodeFormatter}, since formatters are not thread-safe but are expensive to create.
+ * 
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
  */
 public abstract class Formatter
 {
-   public static String format(JavaClass javaClass)
+   // TODO locate user's eclipse project settings, use those if we can.
+   private static final Properties OPTIONS = readConfig("org.eclipse.jdt.core.prefs");
+
+   private static final ThreadLocal<CodeFormatter> formatters = new ThreadLocal<CodeFormatter>()
    {
-      // TODO locate user's eclipse project settings, use those if we can.
-      Properties options = readConfig("org.eclipse.jdt.core.prefs");
+      @Override
+      protected CodeFormatter initialValue()
+      {
+         return ToolFactory.createCodeFormatter(OPTIONS);
+      }
+   };
 
-      final CodeFormatter codeFormatter = ToolFactory.createCodeFormatter(options);
-      String result = formatFile(javaClass, codeFormatter);
+   private static ExecutorService executor;
 
-      return result;
+   public static String format(final JavaSource<?> source)
+   {
+      return format(source.toString());
    }
 
-   private static String formatFile(JavaClass javaClass, CodeFormatter codeFormatter)
+   /**
+    * Format all of the given sources concurrently, returning the formatted results in the same order as the given
+    * {@link Collection}.
+    */
+   public static List<String> format(final Collection<? extends JavaSource<?>> sources)
    {
-      String contents = javaClass.toString();
-
-      IDocument doc = new Document(contents);
+      List<Future<String>> futures = new ArrayList<Future<String>>(sources.size());
       try
       {
-         TextEdit edit = codeFormatter.format(CodeFormatter.K_COMPILATION_UNIT, contents, 0, contents.length(), 0, null);
-         if (edit != null)
+         for (JavaSource<?> source : sources)
          {
-            edit.apply(doc);
+            // render sources on the calling thread, since JavaSource instances are not thread-safe
+            final String contents = source.toString();
+            futures.add(getExecutor().submit(new Callable<String>()
+            {
+               @Override
+               public String call() throws Exception
+               {
+                  return format(contents);
+               }
+            }));
          }
-         else
+
+         List<String> result = new ArrayList<String>(futures.size());
+         for (Future<String> future : futures)
          {
-            return contents;
+            result.add(future.get());
          }
+         return result;
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new ParserException("Interrupted while formatting sources", e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new ParserException(e.getCause());
+      }
+      finally
+      {
+         for (Future<String> future : futures)
+         {
+            future.cancel(true);
+         }
+      }
+   }
+
+   private static String format(final String contents)
+   {
+      TextEdit edit = formatters.get().format(CodeFormatter.K_COMPILATION_UNIT, contents, 0, contents.length(), 0,
+               null);
+      if (edit == null)
+      {
+         return contents;
+      }
+
+      List<TextEdit> edits = new ArrayList<TextEdit>();
+      if (collectEdits(edit, edits))
+      {
+         return applyEdits(contents, edits);
+      }
+      return applyEdits(contents, edit);
+   }
+
+   /**
+    * Collect the plain insert, delete and replace edits that make up the given edit, in document order. Return false
+    * if the edit contains anything else.
+    */
+   private static boolean collectEdits(final TextEdit edit, final List<TextEdit> edits)
+   {
+      if ((edit instanceof ReplaceEdit) || (edit instanceof InsertEdit) || (edit instanceof DeleteEdit))
+      {
+         edits.add(edit);
+         return !edit.hasChildren();
+      }
+      else if (edit instanceof MultiTextEdit)
+      {
+         for (TextEdit child : edit.getChildren())
+         {
+            if (!collectEdits(child, edits))
+            {
+               return false;
+            }
+         }
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Apply the given non-overlapping edits to the given contents in a single pass.
+    */
+   private static String applyEdits(final String contents, final List<TextEdit> edits)
+   {
+      StringBuilder result = new StringBuilder(contents.length() + (contents.length() / 4));
+      int position = 0;
+      for (TextEdit edit : edits)
+      {
+         result.append(contents, position, edit.getOffset());
+         if (edit instanceof ReplaceEdit)
+         {
+            result.append(((ReplaceEdit) edit).getText());
+         }
+         else if (edit instanceof InsertEdit)
+         {
+            result.append(((InsertEdit) edit).getText());
+         }
+         position = edit.getExclusiveEnd();
+      }
+      result.append(contents, position, contents.length());
+      return result.toString();
+   }
+
+   private static String applyEdits(final String contents, final TextEdit edit)
+   {
+      IDocument doc = new Document(contents);
+      try
+      {
+         edit.apply(doc);
       }
       catch (BadLocationException e)
       {
          throw new RuntimeException(e);
       }
-
       return doc.get();
    }
 
+   private static synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-java-formatter");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
    private static Properties readConfig(String filename)
    {
       BufferedInputStream stream = null;
@@ -42,8 +42,6 @@ public class Refactory
          throw new IllegalArgumentException("Entity did not contain the given field [" + field + "]");
       }
 
-      entity.getMethods();
-
       String fieldName = field.getName();
       String methodNameSuffix = Strings.capitalize(fieldName);
       entity.addMethod().setReturnType(field.getType()).setName("get" + methodNameSuffix).setPublic()
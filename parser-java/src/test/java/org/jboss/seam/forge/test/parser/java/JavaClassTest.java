@@ -73,6 +73,21 @@ public class JavaClassTest
       assertFalse(javaClass.isAbstract());
    }
 
+   @Test
+   public void testMemberListsAreReusedUntilModified() throws Exception
+   {
+      List<Method<JavaClass>> methods = javaClass.getMethods();
+      assertTrue(methods == javaClass.getMethods());
+      assertTrue(javaClass.isPublic());
+      assertTrue(methods == javaClass.getMethods());
+
+      javaClass.addMethod("public void newMethod() {}");
+      List<Method<JavaClass>> modified = javaClass.getMethods();
+      assertFalse(methods == modified);
+      assertEquals(methods.size() + 1, modified.size());
+      assertTrue(javaClass.hasMethod("newMethod"));
+   }
+
    @Test
    public void testSetName() throws Exception
    {
@@ -134,6 +149,26 @@ public class JavaClassTest
       assertEquals(Map.class.getName(), javaClass.getImports().get(2).getQualifiedName());
    }
 
+   @Test
+   public void testAddImportsSkipsDuplicates() throws Exception
+   {
+      javaClass.addImports(List.class.getName(), URL.class.getName(), Map.class.getName(), List.class.getName());
+
+      assertEquals(3, javaClass.getImports().size());
+      assertEquals(List.class.getName(), javaClass.getImports().get(1).getQualifiedName());
+      assertEquals(Map.class.getName(), javaClass.getImports().get(2).getQualifiedName());
+   }
+
+   @Test
+   public void testImportLookupSeesChangesMadeOutsideImporter() throws Exception
+   {
+      assertTrue(javaClass.hasImport(URL.class));
+      javaClass.getImport(URL.class).setName(List.class.getName());
+
+      assertFalse(javaClass.hasImport(URL.class));
+      assertTrue(javaClass.hasImport(List.class));
+   }
+
    @Test
    public void testAddImportStatic() throws Exception
    {
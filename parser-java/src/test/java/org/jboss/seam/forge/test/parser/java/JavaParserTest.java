@@ -22,9 +22,23 @@
 
 package org.jboss.seam.forge.test.parser.java;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.jboss.seam.forge.parser.JavaParser;
+import org.jboss.seam.forge.parser.ParseHandler;
 import org.jboss.seam.forge.parser.ParserException;
 import org.jboss.seam.forge.parser.java.JavaClass;
+import org.jboss.seam.forge.parser.java.JavaSource;
 import org.junit.Test;
 
 /**
@@ -37,4 +51,101 @@ public class JavaParserTest
    {
       JavaParser.parse(JavaClass.class, "asdfa$%(*&#$%sdfdsf");
    }
+
+   @Test
+   public void testRepeatedParsesAreIndependent() throws Exception
+   {
+      String source = "package org.example; public class Cached { private String name; }";
+      JavaClass first = JavaParser.parse(JavaClass.class, source);
+      JavaClass second = JavaParser.parse(JavaClass.class, source);
+      assertNotSame(first, second);
+      assertEquals(first, second);
+
+      second.addField("private int count;");
+      second.addImport(List.class);
+      second.getOrigin();
+
+      assertTrue(second.hasField("count"));
+      assertFalse(first.hasField("count"));
+      assertFalse(first.hasImport(List.class));
+      assertFalse(JavaParser.parse(JavaClass.class, source).hasField("count"));
+   }
+
+   @Test
+   public void testSyntaxErrorsAreReportedForRepeatedParses() throws Exception
+   {
+      String source = "public class Broken { private String name }";
+      assertTrue(JavaParser.parse(JavaClass.class, source).hasSyntaxErrors());
+      assertTrue(JavaParser.parse(JavaClass.class, source).hasSyntaxErrors());
+   }
+
+   @Test
+   public void testBatchParseReportsEveryFile() throws Exception
+   {
+      List<File> files = new ArrayList<File>();
+      for (int i = 0; i < 20; i++)
+      {
+         files.add(createSourceFile("public class Batch" + i + " { private int field" + i + "; }"));
+      }
+      File broken = createSourceFile("public class Broken { private int field }");
+      File missing = new File(broken.getParentFile(), "DoesNotExist" + System.nanoTime() + ".java");
+      files.add(broken);
+      files.add(missing);
+
+      final Map<File, JavaSource<?>> parsed = new HashMap<File, JavaSource<?>>();
+      final List<File> failed = new ArrayList<File>();
+      JavaParser.parse(files, new ParseHandler()
+      {
+         @Override
+         public void parsed(final File file, final JavaSource<?> source)
+         {
+            parsed.put(file, source);
+         }
+
+         @Override
+         public void failed(final File file, final Exception e)
+         {
+            failed.add(file);
+         }
+      });
+
+      assertEquals(21, parsed.size());
+      assertEquals("Batch7", parsed.get(files.get(7)).getName());
+      assertTrue(parsed.get(broken).hasSyntaxErrors());
+      assertEquals(1, failed.size());
+      assertEquals(missing, failed.get(0));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testBatchParseRethrowsHandlerExceptions() throws Exception
+   {
+      File missing = new File(System.getProperty("java.io.tmpdir"), "DoesNotExist" + System.nanoTime() + ".java");
+      List<File> files = new ArrayList<File>();
+      files.add(createSourceFile("public class Batch { }"));
+      files.add(missing);
+
+      JavaParser.parse(files, new ParseHandler()
+      {
+         @Override
+         public void parsed(final File file, final JavaSource<?> source)
+         {
+         }
+
+         @Override
+         public void failed(final File file, final Exception e)
+         {
+            throw new IllegalStateException(e);
+         }
+      });
+   }
+
+   private File createSourceFile(final String source) throws Exception
+   {
+      File file = File.createTempFile("JavaParserTest", ".java");
+      file.deleteOnExit();
+      FileWriter writer = new FileWriter(file);
+      writer.write(source);
+      writer.close();
+      return file;
+   }
 }
@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.test.parser.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.seam.forge.parser.JavaParser;
+import org.jboss.seam.forge.parser.ParseMode;
+import org.jboss.seam.forge.parser.java.JavaSource;
+
+/**
+ * Compares parse time and retained heap of {@link ParseMode#STRUCTURAL} and {@link ParseMode#FULL} parses of a large
+ * generated class. The parse cache is disabled, so that both modes are measured parsing every source from scratch. This
+ * is not run as part of the build; run it manually with:
+ * <p>
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ *    -Dexec.mainClass=org.jboss.seam.forge.test.parser.java.ParseModeBenchmark</code>
+ */
+public class ParseModeBenchmark
+{
+   private static final int FIELDS = 500;
+   private static final int WARMUP = 200;
+   private static final int ITERATIONS = 100;
+   private static final int RETAINED = 50;
+
+   public static void main(final String[] args)
+   {
+      System.setProperty("seam.forge.parser.cacheSize", "0");
+      String source = createSource();
+      System.out.println("Parsing a generated class of " + source.length() + " characters");
+
+      for (ParseMode mode : ParseMode.values())
+      {
+         measureTime(source, mode, WARMUP);
+      }
+      for (ParseMode mode : ParseMode.values())
+      {
+         long nanos = measureTime(source, mode, ITERATIONS);
+         long bytes = measureRetainedHeap(source, mode);
+         System.out.println(mode + ": " + (nanos / ITERATIONS / 1000) + " us/parse, ~" + (bytes / RETAINED / 1024)
+                  + " KB retained/parse");
+      }
+   }
+
+   private static long measureTime(final String source, final ParseMode mode, final int iterations)
+   {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++)
+      {
+         JavaParser.parse(source, mode);
+      }
+      return System.nanoTime() - start;
+   }
+
+   private static long measureRetainedHeap(final String source, final ParseMode mode)
+   {
+      List<JavaSource<?>> retained = new ArrayList<JavaSource<?>>();
+      long before = usedMemory();
+      for (int i = 0; i < RETAINED; i++)
+      {
+         retained.add(JavaParser.parse(source, mode));
+      }
+      long after = usedMemory();
+      if (retained.size() != RETAINED)
+      {
+         throw new IllegalStateException();
+      }
+      return after - before;
+   }
+
+   private static long usedMemory()
+   {
+      Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 3; i++)
+      {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+
+   private static String createSource()
+   {
+      StringBuilder result = new StringBuilder();
+      result.append("package org.example;\n\nimport java.util.List;\nimport java.util.ArrayList;\n\n");
+      result.append("public class Generated\n{\n");
+      for (int i = 0; i < FIELDS; i++)
+      {
+         result.append("   private List<String> field").append(i).append(" = new ArrayList<String>();\n");
+      }
+      for (int i = 0; i < FIELDS; i++)
+      {
+         result.append("   public List<String> getField").append(i).append("()\n   {\n      return field").append(i)
+                  .append(";\n   }\n\n");
+         result.append("   public void setField").append(i).append("(final List<String> value)\n   {\n")
+                  .append("      this.field").append(i).append(" = value;\n   }\n\n");
+      }
+      result.append("}\n");
+      return result.toString();
+   }
+}
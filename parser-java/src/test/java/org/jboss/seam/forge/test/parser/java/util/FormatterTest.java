@@ -22,9 +22,12 @@
 
 package org.jboss.seam.forge.test.parser.java.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
 
 import org.jboss.seam.forge.parser.JavaParser;
 import org.jboss.seam.forge.parser.java.JavaClass;
@@ -55,4 +58,24 @@ public class FormatterTest
       String result = Formatter.format(javaClass);
       assertNotSame(result, javaClass.toString());
    }
+
+   @Test
+   public void testFormatIsRepeatable() throws Exception
+   {
+      String result = Formatter.format(javaClass);
+      assertEquals(result, Formatter.format(javaClass));
+      assertEquals(result, Formatter.format(JavaParser.parse(result)));
+   }
+
+   @Test
+   public void testFormatBatchPreservesOrder() throws Exception
+   {
+      JavaClass other = JavaParser.create(JavaClass.class).setName("Other");
+      List<String> results = Formatter.format(Arrays.asList(javaClass, other, javaClass));
+
+      assertEquals(3, results.size());
+      assertEquals(Formatter.format(javaClass), results.get(0));
+      assertEquals(Formatter.format(other), results.get(1));
+      assertEquals(Formatter.format(javaClass), results.get(2));
+   }
 }
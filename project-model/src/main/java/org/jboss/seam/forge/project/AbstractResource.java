@@ -38,16 +38,35 @@ public abstract class AbstractResource<T> implements Resource<T>
 
    protected EnumSet<ResourceFlag> flags;
 
+   private volatile String fullyQualifiedName;
+
    protected AbstractResource(final ResourceFactory factory, final Resource<?> parent)
    {
       this.resourceFactory = factory;
       this.parent = parent;
    }
 
+   /**
+    * The name is built from the names of this resource's parents the first time it is requested, and then kept; the
+    * names of a resource and its parents are not expected to change.
+    */
    @Override
    public String getFullyQualifiedName()
    {
-      return getParent() != null ? getParent().getFullyQualifiedName() + "/" + getName() : getName();
+      String result = fullyQualifiedName;
+      if (result == null)
+      {
+         Resource<?> parentResource = getParent();
+         fullyQualifiedName = result = parentResource != null ? parentResource.getFullyQualifiedName() + "/"
+                  + getName() : getName();
+      }
+      return result;
+   }
+
+   @Override
+   public Iterable<Resource<?>> listResources(final ResourceQuery query)
+   {
+      return query.apply(listResources());
    }
 
    @Override
@@ -82,6 +82,12 @@ public interface Project
     */
    public Project registerFacet(Facet facet);
 
+   /**
+    * Return a number that changes whenever a {@link Facet} is installed or registered in this {@link Project}, so that
+    * results depending on the installed facets can be cached until it changes.
+    */
+   public long getFacetGeneration();
+
    /**
     * Get the {@link File} representing the root directory of this {@link Project}
     */
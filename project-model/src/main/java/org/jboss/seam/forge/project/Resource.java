@@ -44,15 +44,6 @@ import java.util.Set;
 public interface Resource<T>
 {
 
-   /*
-    * TODO Add a ResourceFilter API/Utility
-    * 
-    * Resource.listResources(ResourceFilter filter) <T> List<T>
-    * Filter.apply(ResourceFilter<T> filter, List<Resource<?>> resources)
-    * List<Resource<?>> Filter.apply(ResourceFilter<?> filter, List<Resource<?>>
-    * resources)
-    */
-
    /**
     * Return the common name of the resource. If it's a file, for instance, just
     * the file name.
@@ -93,6 +84,15 @@ public interface Resource<T>
     */
    public List<Resource<?>> listResources();
 
+   /**
+    * Return the child resources of the current resource that are selected by
+    * the given query. Resources that can have very many children create each
+    * child only as the result is iterated.
+    * 
+    * @return The selected child resources.
+    */
+   public Iterable<Resource<?>> listResources(ResourceQuery query);
+
    public T getUnderlyingResourceObject();
 
    public InputStream getResourceInputStream();
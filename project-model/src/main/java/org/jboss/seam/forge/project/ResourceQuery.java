@@ -0,0 +1,303 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.jboss.seam.forge.project.util.PathspecParser;
+
+/**
+ * Selects, orders and pages the children listed by {@link Resource#listResources(ResourceQuery)}. Conditions on the
+ * name of a child ({@link #named(String)}, {@link #includeHidden(boolean)}) and name ordering ({@link #sorted()}) can
+ * be applied by a resource before any child resource is created, so that only the children actually returned are ever
+ * created; a {@link ResourceFilter} can only be applied to children once created.
+ * <p>
+ * Example, the second page of 100 Java files in a directory:<br/>
+ * <code>
+ *    dir.listResources(ResourceQuery.create().named("*.java").sorted().offset(100).limit(100));
+ * </code>
+ */
+public class ResourceQuery
+{
+   private static final Comparator<Resource<?>> NAME_ORDER = new Comparator<Resource<?>>()
+   {
+      @Override
+      public int compare(final Resource<?> left, final Resource<?> right)
+      {
+         return left.getName().compareTo(right.getName());
+      }
+   };
+
+   private Pattern pattern;
+   private boolean hidden = true;
+   private ResourceFilter filter;
+   private boolean sorted;
+   private int offset;
+   private int limit = Integer.MAX_VALUE;
+
+   /**
+    * Create a query that accepts every child, in the order the resource lists them.
+    */
+   public static ResourceQuery create()
+   {
+      return new ResourceQuery();
+   }
+
+   /**
+    * Accept only children whose names match the given pathspec, in which <code>*</code> matches any sequence of
+    * characters and <code>?</code> matches any single character.
+    */
+   public ResourceQuery named(final String pathspec)
+   {
+      this.pattern = Pattern.compile(PathspecParser.pathspecToRegEx(pathspec));
+      return this;
+   }
+
+   /**
+    * Set whether children whose names start with <code>.</code> are accepted. They are by default.
+    */
+   public ResourceQuery includeHidden(final boolean hidden)
+   {
+      this.hidden = hidden;
+      return this;
+   }
+
+   /**
+    * Accept only children accepted by the given filter.
+    */
+   public ResourceQuery filter(final ResourceFilter filter)
+   {
+      this.filter = filter;
+      return this;
+   }
+
+   /**
+    * Return children in order of name.
+    */
+   public ResourceQuery sorted()
+   {
+      this.sorted = true;
+      return this;
+   }
+
+   /**
+    * Skip the given number of accepted children.
+    */
+   public ResourceQuery offset(final int offset)
+   {
+      if (offset < 0)
+      {
+         throw new IllegalArgumentException("Offset must not be negative");
+      }
+      this.offset = offset;
+      return this;
+   }
+
+   /**
+    * Return at most the given number of children.
+    */
+   public ResourceQuery limit(final int limit)
+   {
+      if (limit < 0)
+      {
+         throw new IllegalArgumentException("Limit must not be negative");
+      }
+      this.limit = limit;
+      return this;
+   }
+
+   /**
+    * Return true if a child with the given name may be accepted by this query.
+    */
+   public boolean acceptsName(final String name)
+   {
+      return (hidden || !name.startsWith(".")) && ((pattern == null) || pattern.matcher(name).matches());
+   }
+
+   /**
+    * Apply this query to children that have already been created.
+    */
+   public Iterable<Resource<?>> apply(final List<Resource<?>> children)
+   {
+      List<Resource<?>> candidates = new ArrayList<Resource<?>>();
+      for (Resource<?> child : children)
+      {
+         if (acceptsName(child.getName()))
+         {
+            candidates.add(child);
+         }
+      }
+      if (sorted)
+      {
+         Collections.sort(candidates, NAME_ORDER);
+      }
+      return page(candidates, offset, limit);
+   }
+
+   /**
+    * Apply this query to children known only by name, using the given loader to create only those children that are
+    * needed. Children are created as the returned {@link Iterable} is iterated, not in advance.
+    */
+   public Iterable<Resource<?>> apply(final String[] names, final ChildLoader loader)
+   {
+      List<String> candidates = new ArrayList<String>();
+      for (String name : names)
+      {
+         if (acceptsName(name))
+         {
+            candidates.add(name);
+         }
+      }
+      if (sorted)
+      {
+         Collections.sort(candidates);
+      }
+
+      if (filter == null)
+      {
+         /*
+          * Every remaining name will be accepted, so the page can be chosen before creating anything.
+          */
+         int from = Math.min(offset, candidates.size());
+         int to = (int) Math.min((long) from + limit, candidates.size());
+         return load(candidates.subList(from, to), loader);
+      }
+      return page(load(candidates, loader), offset, limit);
+   }
+
+   private static Iterable<Resource<?>> load(final List<String> names, final ChildLoader loader)
+   {
+      return new Iterable<Resource<?>>()
+      {
+         @Override
+         public Iterator<Resource<?>> iterator()
+         {
+            final Iterator<String> iterator = names.iterator();
+            return new Iterator<Resource<?>>()
+            {
+               @Override
+               public boolean hasNext()
+               {
+                  return iterator.hasNext();
+               }
+
+               @Override
+               public Resource<?> next()
+               {
+                  return loader.load(iterator.next());
+               }
+
+               @Override
+               public void remove()
+               {
+                  throw new UnsupportedOperationException();
+               }
+            };
+         }
+      };
+   }
+
+   private Iterable<Resource<?>> page(final Iterable<Resource<?>> candidates, final int skip, final int max)
+   {
+      return new Iterable<Resource<?>>()
+      {
+         @Override
+         public Iterator<Resource<?>> iterator()
+         {
+            return new PageIterator(candidates.iterator(), filter, skip, max);
+         }
+      };
+   }
+
+   /**
+    * Creates a child resource from its name.
+    */
+   public interface ChildLoader
+   {
+      public Resource<?> load(String name);
+   }
+
+   private static class PageIterator implements Iterator<Resource<?>>
+   {
+      private final Iterator<Resource<?>> candidates;
+      private final ResourceFilter filter;
+      private int skip;
+      private int remaining;
+      private Resource<?> next;
+
+      public PageIterator(final Iterator<Resource<?>> candidates, final ResourceFilter filter, final int skip,
+               final int max)
+      {
+         this.candidates = candidates;
+         this.filter = filter;
+         this.skip = skip;
+         this.remaining = max;
+      }
+
+      @Override
+      public boolean hasNext()
+      {
+         while ((next == null) && (remaining > 0) && candidates.hasNext())
+         {
+            Resource<?> candidate = candidates.next();
+            if ((filter == null) || filter.accept(candidate))
+            {
+               if (skip > 0)
+               {
+                  skip--;
+               }
+               else
+               {
+                  next = candidate;
+                  remaining--;
+               }
+            }
+         }
+         return next != null;
+      }
+
+      @Override
+      public Resource<?> next()
+      {
+         if (!hasNext())
+         {
+            throw new NoSuchElementException();
+         }
+         Resource<?> result = next;
+         next = null;
+         return result;
+      }
+
+      @Override
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
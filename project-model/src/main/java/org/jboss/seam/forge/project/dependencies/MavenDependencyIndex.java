@@ -0,0 +1,205 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.project.dependencies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+/**
+ * An index of a list of Maven dependencies, keyed by <code>groupId:artifactId</code>. Dependency versions are parsed
+ * once when a dependency is indexed, so that repeated equivalence checks do not re-parse them.
+ * <p>
+ * The indexes returned by {@link org.jboss.seam.forge.project.facets.MavenCoreFacet} are shared, and must never be
+ * modified; {@link #add(Dependency)} and {@link #remove(Dependency)} are only for an index owned by its caller, such
+ * as the one kept by a dependency transaction.
+ */
+public class MavenDependencyIndex
+{
+   private final List<Dependency> dependencies;
+   private final Map<String, List<IndexedDependency>> index = new HashMap<String, List<IndexedDependency>>();
+
+   public MavenDependencyIndex(final List<org.apache.maven.model.Dependency> mavenDependencies)
+   {
+      this.dependencies = MavenDependencyAdapter.fromMavenList(mavenDependencies);
+      for (Dependency dependency : dependencies)
+      {
+         put(dependency);
+      }
+   }
+
+   /**
+    * Return an unmodifiable view of all indexed {@link Dependency} instances, in the order they were indexed.
+    */
+   public List<Dependency> getDependencies()
+   {
+      return Collections.unmodifiableList(dependencies);
+   }
+
+   /**
+    * Add the given {@link Dependency} to the end of this index.
+    */
+   public void add(final Dependency dependency)
+   {
+      dependencies.add(dependency);
+      put(dependency);
+   }
+
+   /**
+    * Remove every {@link Dependency} equivalent to the given {@link Dependency} from this index.
+    */
+   public void remove(final Dependency dependency)
+   {
+      List<IndexedDependency> entries = index.get(key(dependency));
+      if (entries != null)
+      {
+         ArtifactVersion version = parseVersion(dependency.getVersion());
+         for (Iterator<IndexedDependency> iterator = entries.iterator(); iterator.hasNext();)
+         {
+            IndexedDependency entry = iterator.next();
+            if (entry.matches(version))
+            {
+               iterator.remove();
+               removeInstance(entry.dependency);
+            }
+         }
+      }
+   }
+
+   private void removeInstance(final Dependency dependency)
+   {
+      for (Iterator<Dependency> iterator = dependencies.iterator(); iterator.hasNext();)
+      {
+         if (iterator.next() == dependency)
+         {
+            iterator.remove();
+            return;
+         }
+      }
+   }
+
+   private void put(final Dependency dependency)
+   {
+      String key = key(dependency);
+      List<IndexedDependency> entries = index.get(key);
+      if (entries == null)
+      {
+         entries = new ArrayList<IndexedDependency>(1);
+         index.put(key, entries);
+      }
+      entries.add(new IndexedDependency(dependency));
+   }
+
+   /**
+    * Return true if this index contains a {@link Dependency} equivalent to the given {@link Dependency}.
+    */
+   public boolean contains(final Dependency dependency)
+   {
+      List<IndexedDependency> entries = index.get(key(dependency));
+      if (entries != null)
+      {
+         ArtifactVersion version = parseVersion(dependency.getVersion());
+         for (IndexedDependency entry : entries)
+         {
+            if (entry.matches(version))
+            {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Return all indexed {@link Dependency} instances equivalent to the given {@link Dependency}.
+    */
+   public List<Dependency> getEquivalent(final Dependency dependency)
+   {
+      List<Dependency> result = new ArrayList<Dependency>();
+      List<IndexedDependency> entries = index.get(key(dependency));
+      if (entries != null)
+      {
+         ArtifactVersion version = parseVersion(dependency.getVersion());
+         for (IndexedDependency entry : entries)
+         {
+            if (entry.matches(version))
+            {
+               result.add(entry.dependency);
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Two dependencies are equivalent if their groupId and artifactId are equal, and their versions are either equal
+    * or at least one of them is not specified.
+    */
+   @SuppressWarnings("unchecked")
+   public static boolean areEquivalent(final Dependency left, final Dependency right)
+   {
+      // FIXME version checking needs to be much more robust
+      if (key(left).equals(key(right)))
+      {
+         if ((left.getVersion() != null) && (right.getVersion() != null))
+         {
+            return parseVersion(left.getVersion()).compareTo(parseVersion(right.getVersion())) == 0;
+         }
+         return true;
+      }
+      return false;
+   }
+
+   private static String key(final Dependency dependency)
+   {
+      return dependency.getGroupId() + ":" + dependency.getArtifactId();
+   }
+
+   private static ArtifactVersion parseVersion(final String version)
+   {
+      return version == null ? null : new DefaultArtifactVersion(version);
+   }
+
+   private static class IndexedDependency
+   {
+      private final Dependency dependency;
+      private final ArtifactVersion version;
+
+      public IndexedDependency(final Dependency dependency)
+      {
+         this.dependency = dependency;
+         this.version = parseVersion(dependency.getVersion());
+      }
+
+      @SuppressWarnings("unchecked")
+      public boolean matches(final ArtifactVersion other)
+      {
+         return (version == null) || (other == null) || (version.compareTo(other) == 0);
+      }
+   }
+}
@@ -121,6 +121,35 @@ public interface DependencyFacet extends Facet
     */
    public List<DependencyRepository> getRepositories();
 
+   /**
+    * Begin a batch of changes to this {@link Project}'s dependencies, properties, and repositories. Until
+    * {@link #commitTransaction()} is called, all mutations made through this facet are applied to a single in-memory
+    * copy of the build script, which is then written only once. Calls may be nested; only the outermost commit writes
+    * any changes.
+    */
+   public void beginTransaction();
+
+   /**
+    * End the innermost transaction. Ending the outermost transaction writes all changes made since
+    * {@link #beginTransaction()} to the project build script, unless a nested transaction was rolled back. If the write
+    * fails, the transaction remains active, so that it may be rolled back.
+    * 
+    * @throws IllegalStateException if no transaction is active
+    */
+   public void commitTransaction();
+
+   /**
+    * End the innermost transaction, and discard all changes made since the outermost {@link #beginTransaction()},
+    * leaving the project build script untouched. Enclosing transactions remain active until they are ended, but will
+    * not write any changes. Does nothing if no transaction is active.
+    */
+   public void rollbackTransaction();
+
+   /**
+    * Return true if changes made through this facet are currently being batched by {@link #beginTransaction()}.
+    */
+   public boolean isTransactionActive();
+
    /**
     * Given a groupid:versionid:version-range, identify the available artifacts in all known repositories for this
     * project. For example:
@@ -26,6 +26,7 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingResult;
 import org.jboss.seam.forge.project.Facet;
 import org.jboss.seam.forge.project.Project;
+import org.jboss.seam.forge.project.dependencies.MavenDependencyIndex;
 
 /**
  * Provides *DIRECT* access to a Project's Maven POM and Build artifacts. Should
@@ -60,4 +61,30 @@ public interface MavenCoreFacet extends Facet
     */
    public MavenProject getMavenProject();
 
+   /**
+    * Return an index of the dependencies declared directly in the current POM. The index is kept until the POM
+    * changes.
+    */
+   public MavenDependencyIndex getDirectDependencyIndex();
+
+   /**
+    * Return an index of all dependencies of the fully-resolved {@link MavenProject}, including those inherited from
+    * parent POMs. The index is kept until the POM hierarchy changes.
+    * <p>
+    * <b>**Warning!**</b> This method calls {@link #getProjectBuildingResult()}.
+    */
+   public MavenDependencyIndex getDependencyIndex();
+
+   /**
+    * Return the number of calls to {@link #getPOM()} and {@link #getProjectBuildingResult()} that were served from
+    * the cached model, without re-reading or re-building the POM.
+    */
+   public long getCacheHits();
+
+   /**
+    * Return the number of calls to {@link #getPOM()} and {@link #getProjectBuildingResult()} that required the POM to
+    * be re-parsed or re-built, because it was not yet cached or had been changed.
+    */
+   public long getCacheMisses();
+
 }
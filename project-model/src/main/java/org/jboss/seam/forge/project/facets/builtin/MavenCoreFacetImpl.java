@@ -21,9 +21,21 @@
  */
 package org.jboss.seam.forge.project.facets.builtin;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
@@ -40,21 +52,40 @@ import org.jboss.seam.forge.project.Facet;
 import org.jboss.seam.forge.project.Project;
 import org.jboss.seam.forge.project.ProjectModelException;
 import org.jboss.seam.forge.project.Resource;
+import org.jboss.seam.forge.project.dependencies.MavenDependencyIndex;
 import org.jboss.seam.forge.project.facets.MavenCoreFacet;
 import org.jboss.seam.forge.project.resources.FileResource;
 
 /**
+ * Caches the parsed POM {@link Model} and the {@link ProjectBuildingResult} for its {@link Project}. The cached model
+ * is keyed on the size, modification time and content digest of pom.xml (the building result additionally on the
+ * modification times of all parent POMs), and is only discarded by {@link #setPOM(Model)} or when one of those files
+ * is changed outside of Forge.
+ * 
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
  */
 @Dependent
 @Named("forge.maven.MavenCoreFacet")
 public class MavenCoreFacetImpl implements MavenCoreFacet, Facet
 {
+   private static final String DIGEST_ALGORITHM = "MD5";
 
    private Project project;
    private ProjectBuildingResult buildingResult;
    private final MavenContainer container;
 
+   private Model cachedPOM;
+   private byte[] cachedDigest;
+   private long cachedLastModified = -1;
+   private long cachedLength = -1;
+   private final Map<File, Long> parentTimestamps = new HashMap<File, Long>();
+
+   private MavenDependencyIndex directDependencyIndex;
+   private MavenDependencyIndex dependencyIndex;
+
+   private long cacheHits = 0;
+   private long cacheMisses = 0;
+
    @Inject
    public MavenCoreFacetImpl(final MavenContainer container)
    {
@@ -65,18 +96,25 @@ public class MavenCoreFacetImpl implements MavenCoreFacet, Facet
     * POM manipulation methods
     */
    @Override
-   public ProjectBuildingResult getProjectBuildingResult()
+   public synchronized ProjectBuildingResult getProjectBuildingResult()
    {
-      // FIXME This method is SLOW: about 2-5 seconds/call (needs optimization!)
+      // Building is still SLOW: about 2-5 seconds/call, so only do it when the POM hierarchy has actually changed
+      refreshPOM();
+      if ((this.buildingResult != null) && !isParentHierarchyStale())
+      {
+         cacheHits++;
+         return buildingResult;
+      }
+
       try
       {
-         if (this.buildingResult == null)
-         {
-            // FIXME this should not use the file API if we are going to abstract file APIs
-            // there could be complications with this abstraction and Maven's need for operating on a file-system.
-            buildingResult = container.getBuilder().build(getPOMFile().getUnderlyingResourceObject(),
-                     container.getRequest());
-         }
+         cacheMisses++;
+         // FIXME this should not use the file API if we are going to abstract file APIs
+         // there could be complications with this abstraction and Maven's need for operating on a file-system.
+         buildingResult = container.getBuilder().build(getPOMFile().getUnderlyingResourceObject(),
+                  container.getRequest());
+         dependencyIndex = null;
+         recordParentHierarchy(buildingResult.getProject());
          return buildingResult;
       }
       catch (ProjectBuildingException e)
@@ -88,53 +126,215 @@ public class MavenCoreFacetImpl implements MavenCoreFacet, Facet
    private void invalidateBuildingResult()
    {
       this.buildingResult = null;
+      this.dependencyIndex = null;
+      this.parentTimestamps.clear();
+   }
+
+   private void recordParentHierarchy(final MavenProject mavenProject)
+   {
+      parentTimestamps.clear();
+      MavenProject parent = mavenProject == null ? null : mavenProject.getParent();
+      while (parent != null)
+      {
+         File parentFile = parent.getFile();
+         if (parentFile != null)
+         {
+            parentTimestamps.put(parentFile, parentFile.lastModified());
+         }
+         parent = parent.getParent();
+      }
+   }
+
+   private boolean isParentHierarchyStale()
+   {
+      for (Entry<File, Long> entry : parentTimestamps.entrySet())
+      {
+         if (entry.getKey().lastModified() != entry.getValue())
+         {
+            return true;
+         }
+      }
+      return false;
    }
 
    @Override
-   public Model getPOM()
+   public synchronized Model getPOM()
    {
-      try
+      if (refreshPOM())
+      {
+         cacheMisses++;
+      }
+      else
       {
-         Model result = new Model();
+         cacheHits++;
+      }
+      return cachedPOM.clone();
+   }
 
-         // FIXME this should/can-not use the Maven Native file writer if we are going to abstract file APIs
-         MavenXpp3Reader reader = new MavenXpp3Reader();
-         FileInputStream stream = new FileInputStream(getPOMFile().getUnderlyingResourceObject());
-         if (stream.available() > 0)
+   /**
+    * Ensure that the cached POM reflects the current contents of pom.xml, re-parsing it only if its content digest has
+    * changed. Return true if the POM had to be parsed.
+    */
+   private boolean refreshPOM()
+   {
+      File file = getPOMFile().getUnderlyingResourceObject();
+      long lastModified = file.lastModified();
+      long length = file.length();
+
+      if ((cachedPOM != null) && (lastModified == cachedLastModified) && (length == cachedLength))
+      {
+         return false;
+      }
+
+      byte[] contents = readPOM(file);
+      byte[] digest = digest(contents);
+      if ((cachedPOM != null) && Arrays.equals(digest, cachedDigest))
+      {
+         // touched, but not changed
+         cachedLastModified = lastModified;
+         cachedLength = length;
+         return false;
+      }
+
+      Model result = new Model();
+      if (contents.length > 0)
+      {
+         try
          {
-            result = reader.read(stream);
+            // FIXME this should/can-not use the Maven Native file reader if we are going to abstract file APIs
+            MavenXpp3Reader reader = new MavenXpp3Reader();
+            result = reader.read(new ByteArrayInputStream(contents));
          }
-         stream.close();
+         catch (IOException e)
+         {
+            throw new ProjectModelException("Could not open POM file: " + getPOMFile(), e);
+         }
+         catch (XmlPullParserException e)
+         {
+            throw new ProjectModelException("Could not parse POM file: " + getPOMFile(), e);
+         }
+      }
+      result.setPomFile(file);
 
-         result.setPomFile(getPOMFile().getUnderlyingResourceObject());
-         return result;
+      cachedPOM = result;
+      directDependencyIndex = null;
+      cachedDigest = digest;
+      cachedLastModified = lastModified;
+      cachedLength = length;
+      invalidateBuildingResult();
+      return true;
+   }
+
+   private byte[] readPOM(final File file)
+   {
+      try
+      {
+         ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.max(file.length(), 32));
+         InputStream stream = new FileInputStream(file);
+         try
+         {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = stream.read(chunk)) != -1)
+            {
+               buffer.write(chunk, 0, read);
+            }
+         }
+         finally
+         {
+            stream.close();
+         }
+         return buffer.toByteArray();
       }
       catch (IOException e)
       {
          throw new ProjectModelException("Could not open POM file: " + getPOMFile(), e);
       }
-      catch (XmlPullParserException e)
+   }
+
+   private static byte[] digest(final byte[] contents)
+   {
+      try
+      {
+         return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(contents);
+      }
+      catch (NoSuchAlgorithmException e)
       {
-         throw new ProjectModelException("Could not parse POM file: " + getPOMFile(), e);
+         throw new ProjectModelException("Could not compute POM digest", e);
       }
    }
 
    @Override
-   public void setPOM(final Model pom)
+   public synchronized void setPOM(final Model pom)
    {
+      FileResource<?> resource = getPOMFile();
+      File file = resource.getUnderlyingResourceObject();
+      byte[] contents;
       try
       {
          // FIXME this should/can-not use the Maven Native file writer if we are going to abstract file APIs
          MavenXpp3Writer writer = new MavenXpp3Writer();
-         FileWriter fw = new FileWriter(getPOMFile().getUnderlyingResourceObject());
-         writer.write(fw, pom);
-         fw.close();
+         StringWriter sw = new StringWriter();
+         writer.write(sw, pom);
+         contents = sw.toString().getBytes();
+
+         OutputStream stream = new FileOutputStream(file);
+         try
+         {
+            stream.write(contents);
+         }
+         finally
+         {
+            stream.close();
+         }
       }
       catch (IOException e)
       {
          throw new ProjectModelException("Could not write POM file: " + getPOMFile(), e);
       }
+      resource.fileChanged();
+
       invalidateBuildingResult();
+      cachedPOM = pom.clone();
+      cachedPOM.setPomFile(file);
+      directDependencyIndex = null;
+      cachedDigest = digest(contents);
+      cachedLastModified = file.lastModified();
+      cachedLength = file.length();
+   }
+
+   @Override
+   public synchronized MavenDependencyIndex getDirectDependencyIndex()
+   {
+      refreshPOM();
+      if (directDependencyIndex == null)
+      {
+         directDependencyIndex = new MavenDependencyIndex(cachedPOM.getDependencies());
+      }
+      return directDependencyIndex;
+   }
+
+   @Override
+   public synchronized MavenDependencyIndex getDependencyIndex()
+   {
+      MavenProject mavenProject = getProjectBuildingResult().getProject();
+      if (dependencyIndex == null)
+      {
+         dependencyIndex = new MavenDependencyIndex(mavenProject.getDependencies());
+      }
+      return dependencyIndex;
+   }
+
+   @Override
+   public long getCacheHits()
+   {
+      return cacheHits;
+   }
+
+   @Override
+   public long getCacheMisses()
+   {
+      return cacheMisses;
    }
 
    private Model createPOM()
@@ -33,8 +33,6 @@ import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.apache.maven.artifact.versioning.ArtifactVersion;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Repository;
 import org.jboss.seam.forge.project.Facet;
@@ -44,6 +42,7 @@ import org.jboss.seam.forge.project.dependencies.DependencyBuilder;
 import org.jboss.seam.forge.project.dependencies.DependencyRepository;
 import org.jboss.seam.forge.project.dependencies.DependencyRepositoryImpl;
 import org.jboss.seam.forge.project.dependencies.MavenDependencyAdapter;
+import org.jboss.seam.forge.project.dependencies.MavenDependencyIndex;
 import org.jboss.seam.forge.project.facets.BaseFacet;
 import org.jboss.seam.forge.project.facets.DependencyFacet;
 import org.jboss.seam.forge.project.facets.FacetNotFoundException;
@@ -60,6 +59,12 @@ public class MavenDependencyFacet extends BaseFacet implements DependencyFacet,
 {
    private final RepositoryLookup lookup;
 
+   private Model transactionPOM;
+   private MavenDependencyIndex transactionIndex;
+   private List<Dependency> transactionRemovals;
+   private int transactionDepth = 0;
+   private boolean rollbackOnly;
+
    @Inject
    public MavenDependencyFacet(final RepositoryLookup lookup)
    {
@@ -87,113 +92,192 @@ public class MavenDependencyFacet extends BaseFacet implements DependencyFacet,
       return true;
    }
 
+   /*
+    * POM access - all reads and writes go through these methods so that they can be batched by a transaction
+    */
+   private Model readPOM()
+   {
+      if (transactionPOM != null)
+      {
+         return transactionPOM;
+      }
+      return project.getFacet(MavenCoreFacet.class).getPOM();
+   }
+
+   private void writePOM(final Model pom)
+   {
+      if (transactionDepth > 0)
+      {
+         transactionPOM = pom;
+      }
+      else
+      {
+         project.getFacet(MavenCoreFacet.class).setPOM(pom);
+      }
+   }
+
+   @Override
+   public void beginTransaction()
+   {
+      if (transactionDepth == 0)
+      {
+         transactionPOM = project.getFacet(MavenCoreFacet.class).getPOM();
+         transactionIndex = new MavenDependencyIndex(transactionPOM.getDependencies());
+         transactionRemovals = new ArrayList<Dependency>();
+         rollbackOnly = false;
+      }
+      transactionDepth++;
+   }
+
+   @Override
+   public void commitTransaction()
+   {
+      if (transactionDepth == 0)
+      {
+         throw new IllegalStateException("Cannot commit: no dependency transaction is active");
+      }
+
+      if (transactionDepth == 1)
+      {
+         if (!rollbackOnly)
+         {
+            /*
+             * Only end the transaction once the POM has been written, so that a failed write can still be rolled back.
+             */
+            project.getFacet(MavenCoreFacet.class).setPOM(transactionPOM);
+         }
+         endTransaction();
+      }
+      transactionDepth--;
+   }
+
+   @Override
+   public void rollbackTransaction()
+   {
+      if (transactionDepth == 0)
+      {
+         return;
+      }
+
+      transactionDepth--;
+      if (transactionDepth == 0)
+      {
+         endTransaction();
+      }
+      else
+      {
+         rollbackOnly = true;
+      }
+   }
+
+   private void endTransaction()
+   {
+      transactionPOM = null;
+      transactionIndex = null;
+      transactionRemovals = null;
+      rollbackOnly = false;
+   }
+
+   @Override
+   public boolean isTransactionActive()
+   {
+      return transactionDepth > 0;
+   }
+
    @Override
    public void addDependency(final Dependency dep)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
       if (!hasDependency(dep))
       {
-         Model pom = maven.getPOM();
+         Model pom = readPOM();
          List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
          dependencies.add(dep);
          pom.setDependencies(MavenDependencyAdapter.toMavenList(dependencies));
-         maven.setPOM(pom);
+         if (transactionIndex != null)
+         {
+            transactionIndex.add(dep);
+         }
+         writePOM(pom);
       }
    }
 
    @Override
    public boolean hasDependency(final Dependency dep)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(maven.getProjectBuildingResult()
-               .getProject().getDependencies());
-
-      for (Dependency dependency : dependencies)
+      // changes pending in a transaction are not yet visible to the Maven project builder
+      if (transactionIndex != null)
       {
-         if (areEquivalent(dependency, dep))
+         if (transactionIndex.contains(dep))
          {
             return true;
          }
+         for (Dependency removed : transactionRemovals)
+         {
+            if (MavenDependencyIndex.areEquivalent(removed, dep))
+            {
+               return false;
+            }
+         }
       }
-      return false;
+
+      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
+      return maven.getDependencyIndex().contains(dep);
    }
 
    @Override
    public boolean hasDirectDependency(final Dependency dependency)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
+      return getDirectDependencyIndex().contains(dependency);
+   }
 
-      for (Dependency dep : dependencies)
+   private MavenDependencyIndex getDirectDependencyIndex()
+   {
+      if (transactionIndex != null)
       {
-         if (areEquivalent(dependency, dep))
-         {
-            return true;
-         }
+         return transactionIndex;
       }
-      return false;
+      return project.getFacet(MavenCoreFacet.class).getDirectDependencyIndex();
    }
 
    @Override
    public void removeDependency(final Dependency dep)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
       List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
 
       List<Dependency> toBeRemoved = new ArrayList<Dependency>();
       for (Dependency dependency : dependencies)
       {
-         if (areEquivalent(dependency, dep))
+         if (MavenDependencyIndex.areEquivalent(dependency, dep))
          {
             toBeRemoved.add(dependency);
          }
       }
       dependencies.removeAll(toBeRemoved);
       pom.setDependencies(MavenDependencyAdapter.toMavenList(dependencies));
-      maven.setPOM(pom);
+      if (transactionIndex != null)
+      {
+         transactionIndex.remove(dep);
+         transactionRemovals.add(dep);
+      }
+      writePOM(pom);
    }
 
    @Override
    public List<Dependency> getDependencies()
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
-      return Collections.unmodifiableList(dependencies);
-   }
-
-   @SuppressWarnings("unchecked")
-   private boolean areEquivalent(final Dependency left, final Dependency right)
-   {
-      // FIXME version checking needs to be much more robust
-      boolean result = false;
-      if (left.getGroupId().equals(right.getGroupId()) && left.getArtifactId().equals(right.getArtifactId()))
+      if (transactionIndex != null)
       {
-         if ((left.getVersion() != null) && (right.getVersion() != null))
-         {
-            ArtifactVersion lversion = new DefaultArtifactVersion(left.getVersion());
-            ArtifactVersion rversion = new DefaultArtifactVersion(right.getVersion());
-
-            if (lversion.compareTo(rversion) == 0)
-            {
-               result = true;
-            }
-         }
-         else
-         {
-            result = true;
-         }
+         // a snapshot, since the transaction's index changes as dependencies are added and removed
+         return Collections.unmodifiableList(new ArrayList<Dependency>(transactionIndex.getDependencies()));
       }
-      return result;
+      return getDirectDependencyIndex().getDependencies();
    }
 
    @Override
    public Map<String, String> getProperties()
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
 
       Properties properties = pom.getProperties();
       Map<String, String> result = new HashMap<String, String>();
@@ -207,34 +291,30 @@ public class MavenDependencyFacet extends BaseFacet implements DependencyFacet,
    @Override
    public void setProperty(final String name, final String value)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
 
       Properties properties = pom.getProperties();
       properties.put(name, value);
-      maven.setPOM(pom);
+      writePOM(pom);
    }
 
    @Override
    public String getProperty(final String name)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
 
       Properties properties = pom.getProperties();
-      maven.setPOM(pom);
       return (String) properties.get(name);
    }
 
    @Override
    public String removeProperty(final String name)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
 
       Properties properties = pom.getProperties();
       String result = (String) properties.remove(name);
-      maven.setPOM(pom);
+      writePOM(pom);
       return result;
    }
 
@@ -262,21 +342,19 @@ public class MavenDependencyFacet extends BaseFacet implements DependencyFacet,
    @Override
    public void addRepository(final String name, final String url)
    {
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
       Repository repo = new Repository();
       repo.setId(name);
       repo.setUrl(url);
       pom.getRepositories().add(repo);
-      maven.setPOM(pom);
+      writePOM(pom);
    }
 
    @Override
    public List<DependencyRepository> getRepositories()
    {
       List<DependencyRepository> results = new ArrayList<DependencyRepository>();
-      MavenCoreFacet maven = project.getFacet(MavenCoreFacet.class);
-      Model pom = maven.getPOM();
+      Model pom = readPOM();
       List<Repository> repos = pom.getRepositories();
       for (Repository repo : repos)
       {
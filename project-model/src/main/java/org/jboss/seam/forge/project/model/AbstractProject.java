@@ -40,6 +40,7 @@ import org.jboss.seam.forge.project.facets.FacetNotFoundException;
 public abstract class AbstractProject implements Project
 {
    private final Set<Facet> facets = new HashSet<Facet>();
+   private volatile long facetGeneration;
    private final Map<String, Object> attributes = new HashMap<String, Object>();
 
    @Override
@@ -155,10 +156,17 @@ public abstract class AbstractProject implements Project
       if (facet.isInstalled() && !hasFacet(facet.getClass()))
       {
          facets.add(facet);
+         facetGeneration++;
       }
       return this;
    }
 
+   @Override
+   public long getFacetGeneration()
+   {
+      return facetGeneration;
+   }
+
    @Override
    public Project installFacet(final Facet facet)
    {
@@ -168,6 +176,7 @@ public abstract class AbstractProject implements Project
          if (facet.install())
          {
             facets.add(facet);
+            facetGeneration++;
          }
          else
          {
@@ -0,0 +1,136 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.project.resources;
+
+import java.io.File;
+
+import org.jboss.seam.forge.project.services.FileChangeMonitor;
+
+/**
+ * A snapshot of the attributes of a file, as needed to list it. Each attribute is read from the file system the first
+ * time it is requested and then remembered, so that code that inspects a file several times (listing a directory,
+ * for instance) makes a single call per attribute.
+ * <p>
+ * A snapshot of a file watched by the {@link FileChangeMonitor} is considered expired once a change has been found in
+ * the watched tree; any other snapshot expires once it is older than {@link #MAX_AGE_MILLIS}. See
+ * {@link FileResource#getAttributes()}.
+ */
+public class FileAttributes
+{
+   /**
+    * How long a snapshot may be used before the file system is consulted again.
+    */
+   public static final long MAX_AGE_MILLIS = 1000;
+
+   private final File file;
+   private final long created = System.currentTimeMillis();
+   private final long generation;
+
+   private Boolean exists;
+   private Boolean directory;
+   private Boolean readable;
+   private Boolean writable;
+   private Boolean executable;
+   private Long length;
+   private Long lastModified;
+
+   public FileAttributes(final File file)
+   {
+      this.file = file;
+      this.generation = FileChangeMonitor.track(file);
+   }
+
+   public boolean isExpired()
+   {
+      if (generation != FileChangeMonitor.UNWATCHED)
+      {
+         return FileChangeMonitor.getGeneration(file) != generation;
+      }
+      return System.currentTimeMillis() - created > MAX_AGE_MILLIS;
+   }
+
+   public boolean exists()
+   {
+      if (exists == null)
+      {
+         /*
+          * A file that exists almost always has a modification time, which is needed anyway.
+          */
+         exists = (lastModified() != 0) || file.exists();
+      }
+      return exists;
+   }
+
+   public boolean isDirectory()
+   {
+      if (directory == null)
+      {
+         directory = file.isDirectory();
+      }
+      return directory;
+   }
+
+   public boolean canRead()
+   {
+      if (readable == null)
+      {
+         readable = file.canRead();
+      }
+      return readable;
+   }
+
+   public boolean canWrite()
+   {
+      if (writable == null)
+      {
+         writable = file.canWrite();
+      }
+      return writable;
+   }
+
+   public boolean canExecute()
+   {
+      if (executable == null)
+      {
+         executable = file.canExecute();
+      }
+      return executable;
+   }
+
+   public long length()
+   {
+      if (length == null)
+      {
+         length = file.length();
+      }
+      return length;
+   }
+
+   public long lastModified()
+   {
+      if (lastModified == null)
+      {
+         lastModified = file.lastModified();
+      }
+      return lastModified;
+   }
+}
@@ -27,6 +27,7 @@ import org.jboss.seam.forge.project.ProjectModelException;
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceFlag;
 import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.project.services.FileChangeMonitor;
 import org.jboss.seam.forge.project.services.ResourceFactory;
 import org.jboss.seam.forge.project.util.OSUtils;
 
@@ -47,6 +48,8 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
 
    protected long lastModification;
 
+   private volatile FileAttributes attributes;
+
    protected FileResource(final ResourceFactory factory, final File file)
    {
       super(factory, null);
@@ -54,7 +57,7 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
 
       if ((this.file = file) != null)
       {
-         this.lastModification = file.lastModified();
+         this.lastModification = getAttributes().lastModified();
       }
    }
 
@@ -103,7 +106,16 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
    @Override
    public Resource<?> getParent()
    {
-      return new DirectoryResource(resourceFactory, file.getParentFile());
+      File parentFile = file.getAbsoluteFile().getParentFile();
+      if (parentFile == null)
+      {
+         return null;
+      }
+      if (resourceFactory == null)
+      {
+         return new DirectoryResource(null, parentFile);
+      }
+      return resourceFactory.getDirectoryFrom(parentFile);
    }
 
    @Override
@@ -122,10 +134,42 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
    @Override
    public abstract Resource<File> createFrom(File file);
 
+   /**
+    * Return the attributes of the underlying file. The returned snapshot is shared until it expires, or until this
+    * resource changes the file, so repeated checks do not each go to the file system.
+    */
+   public FileAttributes getAttributes()
+   {
+      FileAttributes result = attributes;
+      if ((result == null) || result.isExpired())
+      {
+         attributes = result = new FileAttributes(getUnderlyingResourceObject());
+      }
+      return result;
+   }
+
+   /**
+    * Discard the cached attributes of the underlying file, so that they are read again on next use.
+    */
+   public void refreshAttributes()
+   {
+      attributes = null;
+   }
+
+   /**
+    * Report that the underlying file was changed by Forge: discard its cached attributes, and those of the rest of the
+    * tree watched by the {@link FileChangeMonitor}, such as the listing of its directory.
+    */
+   public void fileChanged()
+   {
+      refreshAttributes();
+      FileChangeMonitor.changed(file);
+   }
+
    @Override
    public boolean exists()
    {
-      return getUnderlyingResourceObject().exists();
+      return getAttributes().exists();
    }
 
    /**
@@ -135,22 +179,37 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
     */
    public boolean isStale()
    {
-      return lastModification != getUnderlyingResourceObject().lastModified();
+      return lastModification != getAttributes().lastModified();
    }
 
    public void markUpToDate()
    {
-      lastModification = getUnderlyingResourceObject().lastModified();
+      refreshAttributes();
+      lastModification = getAttributes().lastModified();
    }
 
    public boolean mkdir()
    {
-      return file.mkdir();
+      try
+      {
+         return file.mkdir();
+      }
+      finally
+      {
+         fileChanged();
+      }
    }
 
    public boolean mkdirs()
    {
-      return file.mkdirs();
+      try
+      {
+         return file.mkdirs();
+      }
+      finally
+      {
+         fileChanged();
+      }
    }
 
    /**
@@ -162,6 +221,18 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
    }
 
    public boolean delete(final boolean recursive)
+   {
+      try
+      {
+         return deleteFile(recursive);
+      }
+      finally
+      {
+         fileChanged();
+      }
+   }
+
+   private boolean deleteFile(final boolean recursive)
    {
       if (recursive)
       {
@@ -263,6 +334,7 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
             out.close();
          }
 
+         fileChanged();
          System.out.println("Wrote " + getFullyQualifiedName());
       }
       catch (IOException e)
@@ -296,6 +368,10 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
       {
          throw new ProjectModelException(e);
       }
+      finally
+      {
+         fileChanged();
+      }
    }
 
    @SuppressWarnings("unchecked")
@@ -313,11 +389,26 @@ public abstract class FileResource<T extends FileResource<?>> extends AbstractRe
 
    public boolean renameTo(String pathspec)
    {
-      return file.renameTo(new File(pathspec));
+      try
+      {
+         return file.renameTo(new File(pathspec));
+      }
+      finally
+      {
+         fileChanged();
+      }
    }
 
    public boolean renameTo(final FileResource<?> target)
    {
-      return file.renameTo(target.getUnderlyingResourceObject());
+      try
+      {
+         return file.renameTo(target.getUnderlyingResourceObject());
+      }
+      finally
+      {
+         fileChanged();
+         target.fileChanged();
+      }
    }
 }
@@ -24,11 +24,13 @@ package org.jboss.seam.forge.project.resources.builtin;
 
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceFlag;
+import org.jboss.seam.forge.project.ResourceQuery;
 import org.jboss.seam.forge.project.resources.FileResource;
 import org.jboss.seam.forge.project.resources.ResourceException;
 import org.jboss.seam.forge.project.services.ResourceFactory;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -55,21 +57,54 @@ public class DirectoryResource extends FileResource<DirectoryResource>
       if (isStale())
       {
          listCache = null;
+         markUpToDate();
       }
 
       if (listCache == null)
       {
-         listCache = new LinkedList<Resource<?>>();
+         List<Resource<?>> list = new LinkedList<Resource<?>>();
 
-         for (File f : file.listFiles())
+         File[] files = file.listFiles();
+         if (files != null)
          {
-            listCache.add(resourceFactory.getResourceFrom(f));
+            for (File f : files)
+            {
+               list.add(resourceFactory.getResourceFrom(f));
+            }
          }
+
+         /*
+          * This resource, and so its listing, may be shared; see ResourceFactory#getResourceFrom(File)
+          */
+         listCache = Collections.unmodifiableList(list);
       }
 
       return listCache;
    }
 
+   /**
+    * Select children by name before creating them, so that a query returning only a few entries of a huge directory
+    * creates only those entries. Neither uses nor fills the cache kept by {@link #listResources()}.
+    */
+   @Override
+   public Iterable<Resource<?>> listResources(final ResourceQuery query)
+   {
+      String[] names = file.list();
+      if (names == null)
+      {
+         names = new String[0];
+      }
+
+      return query.apply(names, new ResourceQuery.ChildLoader()
+      {
+         @Override
+         public Resource<?> load(final String name)
+         {
+            return resourceFactory.getResourceFrom(new File(file, name));
+         }
+      });
+   }
+
    /**
     * Obtain a reference to the child resource.
     */
@@ -97,7 +132,7 @@ public class DirectoryResource extends FileResource<DirectoryResource>
 
       if (!(result instanceof DirectoryResource))
       {
-         result = new DirectoryResource(resourceFactory, new File(file.getAbsoluteFile() + File.separator + name));
+         result = resourceFactory.getDirectoryFrom(new File(file.getAbsoluteFile() + File.separator + name));
       }
       return (DirectoryResource) result;
    }
@@ -145,13 +180,7 @@ public class DirectoryResource extends FileResource<DirectoryResource>
    {
       if (parent == null)
       {
-         File parentFile = file.getParentFile();
-         if (parentFile == null)
-         {
-            return null;
-         }
-
-         parent = createFrom(parentFile);
+         parent = super.getParent();
       }
       return parent;
    }
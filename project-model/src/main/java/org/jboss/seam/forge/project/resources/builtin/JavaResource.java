@@ -23,7 +23,12 @@
 package org.jboss.seam.forge.project.resources.builtin;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -49,7 +54,12 @@ import org.jboss.seam.forge.project.services.ResourceFactory;
 @ResourceHandles("*.java")
 public class JavaResource extends FileResource<JavaResource>
 {
-   private volatile JavaSource<?> source;
+   /*
+    * The contents of the file when it was last parsed, and the parsed source, which is shared by every user of this
+    * resource and never modified.
+    */
+   private String contents;
+   private JavaSource<?> source;
 
    @Inject
    public JavaResource(final ResourceFactory factory)
@@ -125,21 +135,58 @@ public class JavaResource extends FileResource<JavaResource>
       return this;
    }
 
-   private void lazyInitialize() throws FileNotFoundException
+   /**
+    * Parse the file on first use, and again whenever it has been changed on disk since it was last parsed.
+    */
+   private synchronized void lazyInitialize() throws FileNotFoundException
    {
-      if (source == null)
+      if ((source == null) || isStale())
       {
-         source = JavaParser.parse(file);
+         markUpToDate();
+         contents = read(file);
+         source = JavaParser.parse(contents);
+      }
+   }
+
+   private static String read(final File file) throws FileNotFoundException
+   {
+      Reader reader = new InputStreamReader(new FileInputStream(file), Charset.forName("ISO-8859-1"));
+      try
+      {
+         StringBuilder result = new StringBuilder((int) file.length());
+         char[] buf = new char[8192];
+         int read;
+         while ((read = reader.read(buf)) != -1)
+         {
+            result.append(buf, 0, read);
+         }
+         return result.toString();
+      }
+      catch (IOException e)
+      {
+         throw new ResourceException(e);
+      }
+      finally
+      {
+         try
+         {
+            reader.close();
+         }
+         catch (IOException e)
+         {
+         }
       }
    }
 
    /**
-    * Attempts to perform cast automatically. This can lead to problems.
+    * Return a private copy of the parsed source, which the caller may modify freely; changes are not seen by other
+    * callers until they are written back with {@link #setContents(JavaClass)}. The copy comes from the parser's cache,
+    * so it costs much less than parsing the file again.
     */
-   public JavaSource<?> getJavaSource() throws FileNotFoundException
+   public synchronized JavaSource<?> getJavaSource() throws FileNotFoundException
    {
       lazyInitialize();
-      return source;
+      return JavaParser.parse(contents);
    }
 
    @Override
@@ -153,7 +200,8 @@ public class JavaResource extends FileResource<JavaResource>
    {
       try
       {
-         return getJavaSource().getQualifiedName();
+         lazyInitialize();
+         return source.getQualifiedName();
       }
       catch (FileNotFoundException e)
       {
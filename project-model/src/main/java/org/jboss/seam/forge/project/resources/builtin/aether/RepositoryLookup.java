@@ -1,9 +1,11 @@
 package org.jboss.seam.forge.project.resources.builtin.aether;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import javax.enterprise.context.Dependent;
+import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import org.apache.maven.repository.internal.MavenRepositorySystemSession;
@@ -21,19 +23,57 @@ import org.sonatype.aether.resolution.VersionRangeResult;
 import org.sonatype.aether.util.artifact.DefaultArtifact;
 import org.sonatype.aether.version.Version;
 
-@Dependent
+/**
+ * Looks up available artifact versions through Aether. A single repository session is shared by all lookups, and
+ * results are kept in a {@link VersionRangeCache} that is persisted under ~/.forge, so that repeated lookups of the
+ * same coordinates do not hit the network again until their cache entries expire.
+ */
+@ApplicationScoped
 public class RepositoryLookup
 {
-   private final PlexusContainer container;
+   /**
+    * System property that overrides the time, in milliseconds, for which a resolved version range is cached.
+    */
+   public static final String CACHE_TTL_PROPERTY = "seam.forge.repository.versionCacheTTL";
+
+   /**
+    * System property that overrides the time, in milliseconds, after which a cached version range is discarded even
+    * as a fallback for unreachable repositories.
+    */
+   public static final String CACHE_MAX_STALE_PROPERTY = "seam.forge.repository.versionCacheMaxStale";
+
+   private static final long DEFAULT_CACHE_TTL = 24 * 60 * 60 * 1000L;
+   private static final long DEFAULT_CACHE_MAX_STALE = 30 * DEFAULT_CACHE_TTL;
+   private static final String CACHE_FILE = ".forge/version-range-cache";
+
+   private PlexusContainer container;
+   private RepositorySystem repoSystem;
+   private MavenRepositorySystemSession session;
+   private VersionRangeCache cache;
+
+   RepositoryLookup()
+   {
+      // for proxying
+   }
 
    @Inject
    public RepositoryLookup(final MavenContainer container)
    {
       this.container = container.getContainer();
+      this.cache = new VersionRangeCache(new File(OSUtils.getUserHomeDir(), CACHE_FILE), Long.getLong(
+               CACHE_TTL_PROPERTY, DEFAULT_CACHE_TTL), Long.getLong(CACHE_MAX_STALE_PROPERTY,
+               DEFAULT_CACHE_MAX_STALE));
    }
 
    public List<String> getAvailableVersions(final String gavs, final DependencyRepository... dependencyRepos)
    {
+      String key = VersionRangeCache.key(gavs, Arrays.asList(dependencyRepos));
+      List<String> cached = cache.get(key);
+      if (cached != null)
+      {
+         return cached;
+      }
+
       try
       {
          List<RemoteRepository> remoteRepos = new ArrayList<RemoteRepository>();
@@ -41,26 +81,51 @@ public class RepositoryLookup
          {
             remoteRepos.add(new RemoteRepository(deprep.getId(), "default", deprep.getUrl()));
          }
-         RepositorySystem repoSystem = container.lookup(RepositorySystem.class);
-         return getVersions(repoSystem, gavs, remoteRepos);
+         List<String> versions = getVersions(gavs, remoteRepos);
+         if (versions.isEmpty())
+         {
+            // an unreachable repository usually yields no versions, rather than an error
+            List<String> expired = cache.getExpired(key);
+            if (expired != null)
+            {
+               return expired;
+            }
+         }
+         cache.put(key, versions);
+         return versions;
       }
       catch (Exception e)
       {
+         // fall back to an expired result, if there is one, when the repositories cannot be reached
+         List<String> expired = cache.getExpired(key);
+         if (expired != null)
+         {
+            return expired;
+         }
          throw new ProjectModelException("Failed to look up versions for [" + gavs + "]", e);
       }
    }
 
-   private List<String> getVersions(final RepositorySystem repoSystem, final String gavs,
-            final List<RemoteRepository> repositories)
-            throws RepositoryException
+   private synchronized List<String> getVersions(final String gavs, final List<RemoteRepository> repositories)
+            throws Exception
    {
+      if (session == null)
+      {
+         repoSystem = container.lookup(RepositorySystem.class);
+         session = new MavenRepositorySystemSession();
 
-      MavenRepositorySystemSession session = new MavenRepositorySystemSession();
-
-      // TODO this reference to the M2_REPO should probably be centralized
-      LocalRepository localRepo = new LocalRepository(OSUtils.getUserHomeDir().getAbsolutePath() + "/.m2/repository");
-      session.setLocalRepositoryManager(repoSystem.newLocalRepositoryManager(localRepo));
+         // TODO this reference to the M2_REPO should probably be centralized
+         LocalRepository localRepo = new LocalRepository(OSUtils.getUserHomeDir().getAbsolutePath()
+                  + "/.m2/repository");
+         session.setLocalRepositoryManager(repoSystem.newLocalRepositoryManager(localRepo));
+      }
+      return getVersions(repoSystem, session, gavs, repositories);
+   }
 
+   private List<String> getVersions(final RepositorySystem repoSystem, final MavenRepositorySystemSession session,
+            final String gavs, final List<RemoteRepository> repositories)
+            throws RepositoryException
+   {
       VersionRangeRequest rangeRequest = new VersionRangeRequest();
       rangeRequest.setArtifact(new DefaultArtifact(gavs));
       for (RemoteRepository repository : repositories)
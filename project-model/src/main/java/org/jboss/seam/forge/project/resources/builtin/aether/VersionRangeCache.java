@@ -0,0 +1,352 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.project.resources.builtin.aether;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.seam.forge.project.dependencies.DependencyRepository;
+
+/**
+ * A persistent cache of resolved version ranges, keyed by artifact coordinates and the set of repositories that were
+ * searched. Entries expire after a fixed time-to-live, but are kept so that they remain available through
+ * {@link #getExpired(String)} when the repositories cannot be reached, until they are replaced by a newer result or
+ * become older than a maximum staleness, after which they are purged.
+ * <p>
+ * Changes are written to disk shortly after they are made, in batches, and when the JVM exits; {@link #flush()} writes
+ * them immediately. Each write merges in the entries that other processes have written to the file since it was read,
+ * keeping the newer of two results for the same key, and replaces the file by renaming a complete temporary file over
+ * it, so that readers never see a partly written cache.
+ */
+public class VersionRangeCache
+{
+   private static final String SEPARATOR = ",";
+   private static final long WRITE_DELAY_MILLIS = 1000;
+
+   private static ScheduledExecutorService scheduler;
+
+   private final File file;
+   private final long ttl;
+   private final long maxStale;
+   private Map<String, CachedRange> entries;
+   private boolean dirty;
+   private boolean writeScheduled;
+   private Thread shutdownHook;
+
+   private final Runnable scheduledWrite = new Runnable()
+   {
+      @Override
+      public void run()
+      {
+         synchronized (VersionRangeCache.this)
+         {
+            writeScheduled = false;
+            flush();
+         }
+      }
+   };
+
+   /**
+    * @param ttl the time, in milliseconds, after which an entry is no longer returned by {@link #get(String)}
+    * @param maxStale the time, in milliseconds, after which an entry is purged altogether
+    */
+   public VersionRangeCache(final File file, final long ttl, final long maxStale)
+   {
+      this.file = file;
+      this.ttl = ttl;
+      this.maxStale = maxStale;
+   }
+
+   /**
+    * Build a cache key for the given artifact coordinates and repositories. The order of the repositories does not
+    * matter.
+    */
+   public static String key(final String gavs, final List<DependencyRepository> repositories)
+   {
+      String[] urls = new String[repositories.size()];
+      for (int i = 0; i < urls.length; i++)
+      {
+         urls[i] = repositories.get(i).getUrl();
+      }
+      Arrays.sort(urls);
+
+      StringBuilder result = new StringBuilder(gavs);
+      for (String url : urls)
+      {
+         result.append(SEPARATOR).append(url);
+      }
+      return result.toString();
+   }
+
+   /**
+    * Return the cached versions for the given key, or null if there are none or they have expired.
+    */
+   public synchronized List<String> get(final String key)
+   {
+      CachedRange range = getEntries().get(key);
+      if ((range != null) && !range.isExpired())
+      {
+         return range.versions;
+      }
+      return null;
+   }
+
+   /**
+    * Return the cached versions for the given key, even if they have expired, or null if there are none.
+    */
+   public synchronized List<String> getExpired(final String key)
+   {
+      CachedRange range = getEntries().get(key);
+      return (range == null) || range.isStale() ? null : range.versions;
+   }
+
+   /**
+    * Cache the given versions, and schedule the cache to be written to disk. Empty results are not cached, since they
+    * usually mean that the repositories could not be reached.
+    */
+   public synchronized void put(final String key, final List<String> versions)
+   {
+      if (!versions.isEmpty())
+      {
+         getEntries().put(key, new CachedRange(System.currentTimeMillis(), versions));
+         dirty = true;
+         if (!writeScheduled)
+         {
+            writeScheduled = true;
+            getScheduler().schedule(scheduledWrite, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+         }
+         if (shutdownHook == null)
+         {
+            shutdownHook = new Thread()
+            {
+               @Override
+               public void run()
+               {
+                  flush();
+               }
+            };
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+         }
+      }
+   }
+
+   /**
+    * Write any changes to disk now.
+    */
+   public synchronized void flush()
+   {
+      if (dirty)
+      {
+         dirty = false;
+         store();
+      }
+   }
+
+   private Map<String, CachedRange> getEntries()
+   {
+      if (entries == null)
+      {
+         entries = load();
+      }
+      return entries;
+   }
+
+   /**
+    * Read the entries currently on disk, skipping any that are past the maximum staleness.
+    */
+   private Map<String, CachedRange> load()
+   {
+      Map<String, CachedRange> result = new HashMap<String, CachedRange>();
+      if (file.isFile())
+      {
+         Properties properties = new Properties();
+         try
+         {
+            InputStream stream = new FileInputStream(file);
+            try
+            {
+               properties.load(stream);
+            }
+            finally
+            {
+               stream.close();
+            }
+         }
+         catch (IOException e)
+         {
+            // a corrupt cache is simply discarded
+            return result;
+         }
+
+         for (Entry<Object, Object> entry : properties.entrySet())
+         {
+            CachedRange range = parse((String) entry.getValue());
+            if ((range != null) && !range.isStale())
+            {
+               result.put((String) entry.getKey(), range);
+            }
+         }
+      }
+      return result;
+   }
+
+   private CachedRange parse(final String value)
+   {
+      String[] parts = value.split(SEPARATOR);
+      try
+      {
+         long timestamp = Long.parseLong(parts[0]);
+         return new CachedRange(timestamp, Arrays.asList(parts).subList(1, parts.length));
+      }
+      catch (NumberFormatException e)
+      {
+         return null;
+      }
+   }
+
+   private void store()
+   {
+      Map<String, CachedRange> merged = load();
+      for (Entry<String, CachedRange> entry : entries.entrySet())
+      {
+         CachedRange other = merged.get(entry.getKey());
+         if ((other == null) || (other.timestamp < entry.getValue().timestamp))
+         {
+            merged.put(entry.getKey(), entry.getValue());
+         }
+      }
+      for (Iterator<CachedRange> iterator = merged.values().iterator(); iterator.hasNext();)
+      {
+         if (iterator.next().isStale())
+         {
+            iterator.remove();
+         }
+      }
+      entries = merged;
+
+      Properties properties = new Properties();
+      for (Entry<String, CachedRange> entry : merged.entrySet())
+      {
+         properties.setProperty(entry.getKey(), entry.getValue().toString());
+      }
+
+      try
+      {
+         File directory = file.getAbsoluteFile().getParentFile();
+         directory.mkdirs();
+         File temp = File.createTempFile(file.getName(), ".tmp", directory);
+         try
+         {
+            OutputStream stream = new FileOutputStream(temp);
+            try
+            {
+               properties.store(stream, "Seam Forge version range cache");
+            }
+            finally
+            {
+               stream.close();
+            }
+
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file)))
+            {
+               throw new IOException("could not replace cache file: " + file.getAbsolutePath());
+            }
+         }
+         finally
+         {
+            temp.delete();
+         }
+      }
+      catch (IOException e)
+      {
+         // the cache is only an optimization; keep working from memory
+      }
+   }
+
+   private static synchronized ScheduledExecutorService getScheduler()
+   {
+      if (scheduler == null)
+      {
+         scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-version-cache-writer");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return scheduler;
+   }
+
+   private class CachedRange
+   {
+      private final long timestamp;
+      private final List<String> versions;
+
+      public CachedRange(final long timestamp, final List<String> versions)
+      {
+         this.timestamp = timestamp;
+         this.versions = Collections.unmodifiableList(new ArrayList<String>(versions));
+      }
+
+      public boolean isExpired()
+      {
+         return System.currentTimeMillis() - timestamp > ttl;
+      }
+
+      public boolean isStale()
+      {
+         return System.currentTimeMillis() - timestamp > maxStale;
+      }
+
+      @Override
+      public String toString()
+      {
+         StringBuilder result = new StringBuilder().append(timestamp);
+         for (String version : versions)
+         {
+            result.append(SEPARATOR).append(version);
+         }
+         return result.toString();
+      }
+   }
+}
@@ -30,7 +30,7 @@ import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceFlag;
 import org.jboss.seam.forge.project.ResourceHandles;
 import org.jboss.seam.forge.project.dependencies.Dependency;
-import org.jboss.seam.forge.project.dependencies.MavenDependencyAdapter;
+import org.jboss.seam.forge.project.dependencies.MavenDependencyIndex;
 import org.jboss.seam.forge.project.resources.FileResource;
 import org.jboss.seam.forge.project.services.ResourceFactory;
 
@@ -44,6 +44,7 @@ import org.jboss.seam.forge.project.services.ResourceFactory;
 public class MavenPomResource extends FileResource<MavenPomResource>
 {
    private Model currentModel;
+   private MavenDependencyIndex dependencyIndex;
 
    @Inject
    public MavenPomResource(final ResourceFactory factory)
@@ -82,9 +83,7 @@ public class MavenPomResource extends FileResource<MavenPomResource>
 
    private void listDependencies(List<Resource<?>> children)
    {
-      Model model = getCurrentModel();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(model.getDependencies());
-      for (Dependency dep : dependencies)
+      for (Dependency dep : getDependencyIndex().getDependencies())
       {
          children.add(new MavenDependencyResource(this, dep));
       }
@@ -92,18 +91,35 @@ public class MavenPomResource extends FileResource<MavenPomResource>
 
    private void listProfiles(List<Resource<?>> children)
    {
-      Model model = getCurrentModel();
-      List<Profile> profiles = model.getProfiles();
+      initialize();
+      List<Profile> profiles = currentModel.getProfiles();
       for (Profile profile : profiles)
       {
          children.add(new MavenProfileResource(this, profile));
       }
    }
 
+   /**
+    * Return a copy of the model read from this POM. The model read from disk is shared by every user of this resource,
+    * so each caller gets a private copy that it may modify without affecting the others until it is written back.
+    */
    public Model getCurrentModel()
    {
       initialize();
-      return currentModel;
+      return currentModel.clone();
+   }
+
+   /**
+    * Return an index of the dependencies declared in this POM.
+    */
+   public MavenDependencyIndex getDependencyIndex()
+   {
+      initialize();
+      if (dependencyIndex == null)
+      {
+         dependencyIndex = new MavenDependencyIndex(currentModel.getDependencies());
+      }
+      return dependencyIndex;
    }
 
    @Override
@@ -112,10 +128,15 @@ public class MavenPomResource extends FileResource<MavenPomResource>
       return new MavenPomResource(resourceFactory, file);
    }
 
+   /**
+    * Read the model on first use, and again whenever the file has been changed on disk since it was last read.
+    */
    private void initialize()
    {
-      if (currentModel == null)
+      if ((currentModel == null) || isStale())
       {
+         markUpToDate();
+         dependencyIndex = null;
          try
          {
             MavenXpp3Reader reader = new MavenXpp3Reader();
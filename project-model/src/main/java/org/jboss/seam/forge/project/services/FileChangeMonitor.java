@@ -0,0 +1,409 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.services;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jboss.seam.forge.project.events.FileCreated;
+import org.jboss.seam.forge.project.events.FileEvent;
+import org.jboss.seam.forge.project.events.FileModified;
+import org.jboss.seam.forge.project.events.JavaFileCreated;
+import org.jboss.seam.forge.project.resources.FileAttributes;
+
+/**
+ * Watches a directory tree (normally the current project) for changes made outside of Forge, such as by an IDE editing
+ * the same files. Only directories that Forge has looked at are watched: those containing, or listed by, a resource
+ * whose {@link FileAttributes} were read. These are re-listed in the background every {@link #POLL_INTERVAL_MILLIS};
+ * each change found fires a {@link FileCreated} (or {@link JavaFileCreated}) or {@link FileModified} event, and
+ * advances the tree's generation.
+ * <p>
+ * {@link FileAttributes} snapshots of files inside the watched tree remain valid until its generation advances, rather
+ * than for a fixed time, so that stale checks on resources in the current project (directory listings, parsed Java
+ * sources, POM models) do not touch the file system until something has actually changed. Hidden files and
+ * directories, and build output directories, are not watched.
+ */
+@Singleton
+public class FileChangeMonitor
+{
+   public static final long POLL_INTERVAL_MILLIS = Long.getLong("seam.forge.project.pollInterval", 1000);
+
+   /**
+    * Returned by {@link #getGeneration(File)} for files that are not being watched.
+    */
+   public static final long UNWATCHED = -1;
+
+   /**
+    * Directories written to by builds, which may change too often, and hold too many files, to be worth watching.
+    */
+   private static final String[] EXCLUDED = { "target" };
+
+   private static final AtomicLong generations = new AtomicLong();
+   private static volatile Tree watched;
+
+   private static ScheduledExecutorService scheduler;
+
+   @Inject
+   private Event<FileEvent> events;
+
+   private Tree tree;
+   private ScheduledFuture<?> task;
+
+   /**
+    * Return the current generation of the watched tree containing the given file, or {@link #UNWATCHED} if the file is
+    * not being watched. The generation changes whenever a change is found anywhere in the tree.
+    */
+   public static long getGeneration(final File file)
+   {
+      Tree current = watched;
+      if ((current != null) && current.contains(file))
+      {
+         return current.generation;
+      }
+      return UNWATCHED;
+   }
+
+   /**
+    * As {@link #getGeneration(File)}, and also start watching the directory containing the given file, as well as the
+    * file itself if it is a directory, from the next poll on.
+    */
+   public static long track(final File file)
+   {
+      Tree current = watched;
+      if ((current != null) && current.contains(file))
+      {
+         long generation = current.generation;
+         current.track(file.getAbsoluteFile());
+         File parent = file.getAbsoluteFile().getParentFile();
+         if ((parent != null) && current.contains(parent))
+         {
+            current.track(parent);
+         }
+         return generation;
+      }
+      return UNWATCHED;
+   }
+
+   /**
+    * Report a change made by Forge itself to the given file, so that snapshots of the watched tree containing it (such
+    * as the listing of its directory) expire now, rather than when the next poll finds the change.
+    */
+   public static void changed(final File file)
+   {
+      Tree current = watched;
+      if ((current != null) && current.contains(file))
+      {
+         current.generation = generations.incrementAndGet();
+      }
+   }
+
+   /**
+    * Start watching the given directory, in place of any directory watched before. Passing null stops watching.
+    */
+   public synchronized void watch(final File root)
+   {
+      stop();
+      if ((root != null) && root.isDirectory())
+      {
+         tree = new Tree(root.getAbsoluteFile());
+         watched = tree;
+
+         task = getScheduler().scheduleWithFixedDelay(new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               poll();
+            }
+         }, 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Stop watching. Attributes of files in the previously watched tree expire immediately.
+    */
+   public synchronized void stop()
+   {
+      if (task != null)
+      {
+         task.cancel(false);
+         task = null;
+      }
+      if ((tree != null) && (watched == tree))
+      {
+         watched = null;
+      }
+      tree = null;
+   }
+
+   public synchronized File getRoot()
+   {
+      return tree == null ? null : tree.root;
+   }
+
+   /**
+    * List the watched directories once, and report any changes made since the previous poll. Directories watched for
+    * the first time are listed without reporting their contents, but still advance the generation, since they may
+    * have changed after their attributes were read.
+    *
+    * @return the events fired
+    */
+   public List<FileEvent> poll()
+   {
+      Tree current;
+      synchronized (this)
+      {
+         current = tree;
+      }
+      if (current == null)
+      {
+         return new ArrayList<FileEvent>();
+      }
+
+      List<FileEvent> changes = new ArrayList<FileEvent>();
+      synchronized (current)
+      {
+         Map<String, Map<String, Long>> listings = new HashMap<String, Map<String, Long>>();
+         boolean changed = false;
+
+         for (Entry<String, Map<String, Long>> entry : current.listings.entrySet())
+         {
+            Map<String, Long> previous = entry.getValue();
+            Map<String, Long> listing = list(new File(entry.getKey()));
+            if (listing == null)
+            {
+               // removed; its parent reports the change
+               current.tracked.remove(entry.getKey());
+               changed = true;
+               continue;
+            }
+            listings.put(entry.getKey(), listing);
+
+            int created = 0;
+            for (Entry<String, Long> child : listing.entrySet())
+            {
+               Long before = previous.get(child.getKey());
+               if (before == null)
+               {
+                  File file = new File(child.getKey());
+                  changes.add(file.getName().endsWith(".java") ? new JavaFileCreated(file) : new FileCreated(file));
+                  created++;
+               }
+               else if (!before.equals(child.getValue()))
+               {
+                  changes.add(new FileModified(new File(child.getKey())));
+               }
+               else
+               {
+                  continue;
+               }
+
+               if (!current.listings.containsKey(child.getKey()))
+               {
+                  // it may have become a directory since it was tracked
+                  current.tracked.remove(child.getKey());
+               }
+            }
+            changed |= previous.size() + created != listing.size();
+         }
+
+         File file;
+         while ((file = current.pending.poll()) != null)
+         {
+            if (!listings.containsKey(file.getPath()))
+            {
+               // files that are not directories are watched through their parents
+               Map<String, Long> listing = list(file);
+               if (listing != null)
+               {
+                  listings.put(file.getPath(), listing);
+                  changed = true;
+               }
+            }
+         }
+
+         synchronized (this)
+         {
+            if (tree != current)
+            {
+               // stopped, or moved on to another tree, while listing
+               return new ArrayList<FileEvent>();
+            }
+            current.listings = listings;
+            if (!changes.isEmpty() || changed)
+            {
+               current.generation = generations.incrementAndGet();
+            }
+         }
+      }
+
+      for (FileEvent event : changes)
+      {
+         fire(event);
+      }
+      return changes;
+   }
+
+   protected void fire(final FileEvent event)
+   {
+      if (events != null)
+      {
+         events.fire(event);
+      }
+   }
+
+   /**
+    * Record the modification time of every watched file in the given directory, or return null if it is not a
+    * directory.
+    */
+   private static Map<String, Long> list(final File directory)
+   {
+      File[] files = directory.listFiles();
+      if (files == null)
+      {
+         return null;
+      }
+
+      Map<String, Long> listing = new HashMap<String, Long>();
+      for (File file : files)
+      {
+         if (!isExcluded(file.getName()))
+         {
+            listing.put(file.getPath(), file.lastModified());
+         }
+      }
+      return listing;
+   }
+
+   private static boolean isExcluded(final String name)
+   {
+      if (name.startsWith("."))
+      {
+         return true;
+      }
+      for (String excluded : EXCLUDED)
+      {
+         if (excluded.equals(name))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static synchronized ScheduledExecutorService getScheduler()
+   {
+      if (scheduler == null)
+      {
+         scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-file-monitor");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return scheduler;
+   }
+
+   private static class Tree
+   {
+      private final File root;
+      private final String prefix;
+      private volatile long generation = generations.incrementAndGet();
+
+      /*
+       * Paths tracked so far, and those not yet listed by a poll.
+       */
+      private final Map<String, Boolean> tracked = new ConcurrentHashMap<String, Boolean>();
+      private final Queue<File> pending = new ConcurrentLinkedQueue<File>();
+
+      /*
+       * The last listing of each watched directory, by path; only used while polling.
+       */
+      private Map<String, Map<String, Long>> listings = new HashMap<String, Map<String, Long>>();
+
+      public Tree(final File root)
+      {
+         this.root = root;
+         this.prefix = root.getPath() + File.separator;
+      }
+
+      public void track(final File file)
+      {
+         if (tracked.put(file.getPath(), Boolean.TRUE) == null)
+         {
+            pending.add(file);
+         }
+      }
+
+      public boolean contains(final File file)
+      {
+         String path = file.getAbsolutePath();
+         if (path.equals(root.getPath()))
+         {
+            return true;
+         }
+         if (!path.startsWith(prefix))
+         {
+            return false;
+         }
+
+         int start = prefix.length();
+         while (start < path.length())
+         {
+            int end = path.indexOf(File.separatorChar, start);
+            if (end == -1)
+            {
+               end = path.length();
+            }
+            if (isExcluded(path.substring(start, end)))
+            {
+               return false;
+            }
+            start = end + 1;
+         }
+         return true;
+      }
+   }
+}
@@ -26,6 +26,7 @@ import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceHandles;
 import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
 import org.jboss.seam.forge.project.resources.builtin.UnknownFileResource;
+import org.jboss.seam.forge.project.util.PathspecParser;
 
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.event.Observes;
@@ -36,7 +37,11 @@ import javax.enterprise.inject.spi.ProcessBean;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 /**
@@ -45,20 +50,13 @@ import java.util.regex.Pattern;
 @Singleton
 public class ResourceFactory implements Extension
 {
-   private final List<ResourceGenerator> resourceGenerators = new ArrayList<ResourceGenerator>();
    /**
-    * Most directories will tend to contain the same type of file (such as .java, .jar, .xml, etc). So we will remember
-    * the last resource type we tested against and always re-try on subsequent queries before doing a comprehensive
-    * match.
+    * The generators registered so far, arranged for lookup by file name. A new table is built each time a generator is
+    * registered (which only happens while the container starts), so lookups need no locking.
     */
-   private volatile ResourceGenerator lastTypeLoaded = new ResourceGenerator()
-   {
-      @Override
-      public boolean matches(final String name)
-      {
-         return false;
-      }
-   };
+   private volatile DispatchTable dispatch = new DispatchTable(new ArrayList<ResourceGenerator>());
+
+   private final ResourceRegistry registry = new ResourceRegistry();
 
    public void scan(@Observes final ProcessBean<?> event, final BeanManager manager)
    {
@@ -69,83 +67,254 @@ public class ResourceFactory implements Extension
       {
          for (String pspec : clazz.getAnnotation(ResourceHandles.class).value())
          {
-            Pattern p = Pattern.compile(pathspecToRegEx(pspec));
             CreationalContext<?> creationalCtx = manager.createCreationalContext(bean);
             Resource<?> rInst = (Resource<?>) manager.getReference(bean, bean.getBeanClass(), creationalCtx);
 
-            resourceGenerators.add(new ResourceGenerator(p, rInst));
+            register(pspec, rInst);
          }
       }
    }
-   
+
+   /**
+    * Use the given resource to create resources for files whose names match the given path specification, in which
+    * <code>*</code> matches any sequence of characters and <code>?</code> matches any single character.
+    */
+   synchronized void register(final String pathSpec, final Resource<?> resource)
+   {
+      List<ResourceGenerator> generators = new ArrayList<ResourceGenerator>(dispatch.generators);
+      generators.add(new ResourceGenerator(pathSpec, resource));
+      dispatch = new DispatchTable(generators);
+   }
+
    @SuppressWarnings("unchecked")
    public <E, T extends Resource<E>> T createFromType(Class<T> type, E underlyingResource)
    {
-      synchronized (this)
+      for (ResourceGenerator gen : dispatch.generators)
       {
-         for (ResourceGenerator gen : resourceGenerators)
+         Resource<?> resource = gen.getResource();
+         if (type.isAssignableFrom(resource.getClass()))
          {
-            Resource<?> resource = gen.getResource();
-            if (type.isAssignableFrom(resource.getClass()))
-            {
-               /*
-                * This little <T> hack is required due to bug in javac:
-                * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6302954
-                */
-               T result = (lastTypeLoaded = gen).<T>getResource();
-               return (T) result.createFrom(underlyingResource);
-            }
+            /*
+             * This little <T> hack is required due to bug in javac:
+             * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6302954
+             */
+            T result = gen.<T>getResource();
+            return (T) result.createFrom(underlyingResource);
          }
       }
       return null;
    }
 
+   /**
+    * Return the resource for the given file. The same resource is returned for the same path for as long as it is in
+    * use, unless the type of resource needed for the file has changed (such as when a directory has been created in
+    * place of a missing file).
+    */
+   @SuppressWarnings("unchecked")
    public Resource<File> getResourceFrom(File file)
    {
+      file = normalize(file);
+      String path = file.getPath();
+
       /**
        * Special case for directories required.
        */
-      file = file.getAbsoluteFile();
       if (file.isDirectory())
       {
-         return new DirectoryResource(this, file);
+         return getDirectory(file, path);
       }
 
-      final String name = file.getName();
+      ResourceGenerator gen = dispatch.lookup(file.getName());
+      Class<?> type = gen == null ? UnknownFileResource.class : gen.getResource().getClass();
+      Resource<File> result = (Resource<File>) registry.get(path, type);
+      if (result == null)
+      {
+         result = registry.register(path, gen == null ? new UnknownFileResource(this, file) : gen.getResource(
+                  File.class).createFrom(file));
+      }
+      return result;
+   }
 
-      synchronized (this)
+   /**
+    * Return the {@link DirectoryResource} for the given file, whether or not the directory exists. Like
+    * {@link #getResourceFrom(File)}, the same resource is returned for the same path.
+    */
+   public DirectoryResource getDirectoryFrom(File file)
+   {
+      file = normalize(file);
+      return getDirectory(file, file.getPath());
+   }
+
+   private DirectoryResource getDirectory(final File file, final String path)
+   {
+      DirectoryResource result = (DirectoryResource) registry.get(path, DirectoryResource.class);
+      if (result == null)
+      {
+         result = registry.register(path, new DirectoryResource(this, file));
+      }
+      return result;
+   }
+
+   /**
+    * Make the given file absolute, and remove any <code>.</code> and <code>..</code> segments from its path.
+    */
+   static File normalize(final File file)
+   {
+      String path = file.getAbsolutePath();
+      if (!path.contains(File.separator + "."))
+      {
+         return file.isAbsolute() ? file : new File(path);
+      }
+
+      String[] segments = path.split(Pattern.quote(File.separator), -1);
+      List<String> kept = new ArrayList<String>(segments.length);
+      for (int i = 0; i < segments.length; i++)
       {
-         if (lastTypeLoaded.matches(name))
+         String segment = segments[i];
+         if (".".equals(segment))
          {
-            return lastTypeLoaded.getResource(File.class).createFrom(file);
+            continue;
          }
-
-         for (ResourceGenerator gen : resourceGenerators)
+         else if ("..".equals(segment))
          {
-            if (gen.matches(name))
+            // never remove the root
+            if (kept.size() > 1)
             {
-               return (lastTypeLoaded = gen).getResource(File.class).createFrom(file);
+               kept.remove(kept.size() - 1);
             }
          }
+         else if ((segment.length() > 0) || (i == 0))
+         {
+            kept.add(segment);
+         }
       }
 
-      return new UnknownFileResource(this, file);
+      StringBuilder normalized = new StringBuilder(path.length());
+      for (int i = 0; i < kept.size(); i++)
+      {
+         if (i > 0)
+         {
+            normalized.append(File.separatorChar);
+         }
+         normalized.append(kept.get(i));
+      }
+      if (kept.size() == 1)
+      {
+         normalized.append(File.separatorChar);
+      }
+      return new File(normalized.toString());
    }
 
-   static class ResourceGenerator
+   /**
+    * Finds the generator for a file name. Path specifications without wildcards are looked up by the whole name, and
+    * those of the form <code>*suffix</code> by each registered suffix length, longest first; only the remaining
+    * specifications are matched as regular expressions, in registration order.
+    * <p>
+    * Instances are never modified once built, and so may be read by any number of threads.
+    */
+   static class DispatchTable
    {
-      private Pattern pattern;
-      private Resource<?> resource;
+      private final List<ResourceGenerator> generators;
+      private final Map<String, ResourceGenerator> names = new HashMap<String, ResourceGenerator>();
+      private final Map<String, ResourceGenerator> suffixes = new HashMap<String, ResourceGenerator>();
+      private final int[] suffixLengths;
+      private final List<ResourceGenerator> patterns = new ArrayList<ResourceGenerator>();
 
-      ResourceGenerator()
+      DispatchTable(final List<ResourceGenerator> generators)
       {
+         this.generators = Collections.unmodifiableList(generators);
+
+         TreeSet<Integer> lengths = new TreeSet<Integer>(Collections.reverseOrder());
+         for (ResourceGenerator gen : generators)
+         {
+            String spec = gen.pathSpec;
+            if (!hasWildcard(spec, 0))
+            {
+               putIfAbsent(names, spec, gen);
+            }
+            else if ((spec.charAt(0) == '*') && !hasWildcard(spec, 1))
+            {
+               putIfAbsent(suffixes, spec.substring(1), gen);
+               lengths.add(spec.length() - 1);
+            }
+            else
+            {
+               patterns.add(gen);
+            }
+         }
+
+         suffixLengths = new int[lengths.size()];
+         int i = 0;
+         for (Integer length : lengths)
+         {
+            suffixLengths[i++] = length;
+         }
       }
 
-      ResourceGenerator(final Pattern pattern, final Resource<?> resource)
+      ResourceGenerator lookup(final String name)
       {
-         this.pattern = pattern;
-         this.resource = resource;
+         ResourceGenerator gen = names.get(name);
+         if (gen != null)
+         {
+            return gen;
+         }
+
+         for (int length : suffixLengths)
+         {
+            if (length <= name.length())
+            {
+               gen = suffixes.get(name.substring(name.length() - length));
+               if (gen != null)
+               {
+                  return gen;
+               }
+            }
+         }
+
+         for (ResourceGenerator pattern : patterns)
+         {
+            if (pattern.matches(name))
+            {
+               return pattern;
+            }
+         }
+         return null;
+      }
+
+      private static boolean hasWildcard(final String spec, final int from)
+      {
+         for (int i = from; i < spec.length(); i++)
+         {
+            char c = spec.charAt(i);
+            if ((c == '*') || (c == '?'))
+            {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private static void putIfAbsent(final Map<String, ResourceGenerator> map, final String key,
+               final ResourceGenerator gen)
+      {
+         if (!map.containsKey(key))
+         {
+            map.put(key, gen);
+         }
+      }
+   }
+
+   static class ResourceGenerator
+   {
+      private final String pathSpec;
+      private final Pattern pattern;
+      private final Resource<?> resource;
 
+      ResourceGenerator(final String pathSpec, final Resource<?> resource)
+      {
+         this.pathSpec = pathSpec;
+         this.pattern = Pattern.compile(PathspecParser.pathspecToRegEx(pathSpec));
+         this.resource = resource;
       }
 
       public boolean matches(final String name)
@@ -165,9 +334,4 @@ public class ResourceFactory implements Extension
          return (Resource<T>) resource;
       }
    }
-
-   private static String pathspecToRegEx(final String pathSpec)
-   {
-      return "^" + pathSpec.replaceAll("\\*", "\\.\\*").replaceAll("\\?", "\\.") + "$";
-   }
 }
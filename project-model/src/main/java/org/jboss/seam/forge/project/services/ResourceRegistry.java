@@ -0,0 +1,99 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.services;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.seam.forge.project.Resource;
+
+/**
+ * Holds the canonical resource for each path, for as long as the resource is in use elsewhere, so that looking up the
+ * same path twice yields the same resource and whatever it has cached.
+ * <p>
+ * This class is thread-safe.
+ */
+class ResourceRegistry
+{
+   private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+   private final ReferenceQueue<Resource<?>> queue = new ReferenceQueue<Resource<?>>();
+
+   /**
+    * Return the registered resource for the given path if it is of exactly the given type, otherwise null.
+    */
+   public Resource<?> get(final String path, final Class<?> type)
+   {
+      purge();
+      Entry entry = entries.get(path);
+      Resource<?> resource = entry == null ? null : entry.get();
+      return (resource != null) && (resource.getClass() == type) ? resource : null;
+   }
+
+   /**
+    * Register the given resource for the given path, unless another thread has just registered a resource of the same
+    * type, in which case that resource is returned instead. A registered resource of a different type is replaced.
+    */
+   @SuppressWarnings("unchecked")
+   public <T extends Resource<?>> T register(final String path, final T resource)
+   {
+      Entry fresh = new Entry(path, resource, queue);
+      while (true)
+      {
+         Entry entry = entries.get(path);
+         Resource<?> existing = entry == null ? null : entry.get();
+         if ((existing != null) && (existing.getClass() == resource.getClass()))
+         {
+            return (T) existing;
+         }
+         if (entry == null ? entries.putIfAbsent(path, fresh) == null : entries.replace(path, entry, fresh))
+         {
+            return resource;
+         }
+      }
+   }
+
+   /**
+    * Remove the entries of resources that are no longer in use.
+    */
+   private void purge()
+   {
+      Entry entry;
+      while ((entry = (Entry) queue.poll()) != null)
+      {
+         entries.remove(entry.path, entry);
+      }
+   }
+
+   private static class Entry extends WeakReference<Resource<?>>
+   {
+      private final String path;
+
+      public Entry(final String path, final Resource<?> resource, final ReferenceQueue<Resource<?>> queue)
+      {
+         super(resource, queue);
+         this.path = path;
+      }
+   }
+}
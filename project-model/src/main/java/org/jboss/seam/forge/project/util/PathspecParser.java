@@ -24,11 +24,10 @@ package org.jboss.seam.forge.project.util;
 
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceFlag;
-import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.project.ResourceQuery;
 import org.jboss.seam.forge.project.services.ResourceFactory;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -45,7 +44,8 @@ import java.util.regex.Pattern;
  * Where <tt>factoryInstance</tt> is an instance of {@link ResourceFactory}, <tt>relativeResource</tt> is a resource,
  * such as a file or directory, for which the relative result for <tt>../../foobar</tt> will be calculated.<p/>
  *
- * Wildcards <tt>*</tt> and <tt>?</tt> are accepted.
+ * Wildcards <tt>*</tt> and <tt>?</tt> are accepted. Resources matched by a wildcard in the last segment of the path
+ * are reported by {@link PathspecResults#isAmbiguouslyQualified(Resource)}.
  *
  * @author Mike Brock
  */
@@ -60,7 +60,7 @@ public class PathspecParser
 
    private static boolean isWindows = OSUtils.isWindows();
 
-   List<Resource<?>> results = new LinkedList<Resource<?>>();
+   PathspecResults results = new PathspecResults();
 
    public PathspecParser(final ResourceFactory factory, final Resource<?> res, final String path)
    {
@@ -83,7 +83,7 @@ public class PathspecParser
     * Resolve the results.
     * @return A list of resources that match the path. Empty if there are no matches.
     */
-   public List<Resource<?>> resolve()
+   public PathspecResults resolve()
    {
       Resource<?> r = res;
       String tk;
@@ -98,19 +98,19 @@ public class PathspecParser
 
          if (path.length() == 1)
          {
-            return singleResult(new DirectoryResource(factory, homeDir));
+            return singleResult(factory.getDirectoryFrom(homeDir));
          }
          else
          {
             cursor++;
-            r = new DirectoryResource(factory, homeDir);
+            r = factory.getDirectoryFrom(homeDir);
          }
       }
       // for windows, support drive letter prefixes here.
       else if (isWindows && path.matches("^[a-zA-Z]{1,1}:/.*"))
       {
          int idx = path.indexOf('/') + 1;
-         r = new DirectoryResource(factory, new File(path.substring(0, idx)));
+         r = factory.getDirectoryFrom(new File(path.substring(0, idx)));
          cursor = idx;
       }
 
@@ -153,43 +153,21 @@ public class PathspecParser
 
             if (tk.matches(".*(\\?|\\*)+.*"))
             {
-               boolean startDot = tk.startsWith(".");
-               String regex = pathspecToRegEx(tk.startsWith("/") ? tk.substring(1) : tk);
-               Pattern p = Pattern.compile(regex);
+               String spec = tk.startsWith("/") ? tk.substring(1) : tk;
+               ResourceQuery query = ResourceQuery.create().named(spec).includeHidden(spec.startsWith("."))
+                        .sorted();
 
-               List<Resource<?>> res = new LinkedList<Resource<?>>();
-
-               for (Resource<?> child : r.listResources())
+               for (Resource<?> child : r.listResources(query))
                {
-                  if (p.matcher(child.getName()).matches())
+                  if (cursor != length)
                   {
-                     child.setFlag(ResourceFlag.AmbiguouslyQualified);
-
-                     if (child.getName().startsWith("."))
-                     {
-                        if (startDot)
-                        {
-                           res.add(child);
-                        }
-                     }
-                     else
-                     {
-                        res.add(child);
-                     }
+                     results.addAll(new PathspecParser(factory, child, path, cursor).resolve());
                   }
-               }
-
-               if (cursor != length)
-               {
-                  for (Resource<?> child : res)
+                  else
                   {
-                     results.addAll(new PathspecParser(factory, child, path, cursor).resolve());
+                     results.addAmbiguous(child);
                   }
                }
-               else
-               {
-                  results.addAll(res);
-               }
 
                return results;
             }
@@ -272,9 +250,11 @@ public class PathspecParser
       return candidates;
    }
 
-   private static List<Resource<?>> singleResult(Resource<?> item)
+   private static PathspecResults singleResult(final Resource<?> item)
    {
-      return Collections.<Resource<?>>singletonList(item);
+      PathspecResults result = new PathspecResults();
+      result.add(item);
+      return result;
    }
 
    private char read()
@@ -304,27 +284,32 @@ public class PathspecParser
       return path.substring(start, cursor);
    }
 
-   private static String pathspecToRegEx(final String pathSpec)
+   /**
+    * Convert a single path segment specification, in which <code>*</code> matches any sequence of characters and
+    * <code>?</code> matches any single character, to an equivalent regular expression. All other characters match
+    * only themselves.
+    */
+   public static String pathspecToRegEx(final String pathSpec)
    {
       StringBuilder sb = new StringBuilder("^");
-      char c;
+      int start = 0;
       for (int i = 0; i < pathSpec.length(); i++)
       {
-         switch (c = pathSpec.charAt(i))
+         char c = pathSpec.charAt(i);
+         if ((c == '*') || (c == '?'))
          {
-         case '.':
-            sb.append("\\.");
-            break;
-         case '*':
-            sb.append(".*");
-            break;
-         case '?':
-            sb.append(".");
-            break;
-         default:
-            sb.append(c);
+            if (i > start)
+            {
+               sb.append(Pattern.quote(pathSpec.substring(start, i)));
+            }
+            sb.append(c == '*' ? ".*" : ".");
+            start = i + 1;
          }
       }
+      if (start < pathSpec.length())
+      {
+         sb.append(Pattern.quote(pathSpec.substring(start)));
+      }
 
       return sb.append("$").toString();
    }
@@ -0,0 +1,69 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.util;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Set;
+
+import org.jboss.seam.forge.project.Resource;
+
+/**
+ * The resources matched by a {@link PathspecParser}, in order. The list also records which of them were matched by a
+ * wildcard rather than named exactly; resources are shared by everyone who resolves them, so this is kept here rather
+ * than on the resources themselves.
+ */
+public class PathspecResults extends LinkedList<Resource<?>>
+{
+   private static final long serialVersionUID = 1L;
+
+   private final Set<Resource<?>> ambiguous = Collections.newSetFromMap(new IdentityHashMap<Resource<?>, Boolean>());
+
+   /**
+    * Add a resource that was matched by a wildcard.
+    */
+   public void addAmbiguous(final Resource<?> resource)
+   {
+      add(resource);
+      ambiguous.add(resource);
+   }
+
+   /**
+    * Add all the given results, keeping track of those that were matched by a wildcard.
+    */
+   public void addAll(final PathspecResults results)
+   {
+      super.addAll(results);
+      ambiguous.addAll(results.ambiguous);
+   }
+
+   /**
+    * Return true if the given resource was matched by a wildcard in the last segment of the path, as opposed to being
+    * uniquely qualified.
+    */
+   public boolean isAmbiguouslyQualified(final Resource<?> resource)
+   {
+      return ambiguous.contains(resource);
+   }
+}
@@ -77,8 +77,8 @@ public class ResourceUtil
    }
 
 
-   public static List<Resource<?>> parsePathspec(final ResourceFactory factory, final Resource<?> resource,
-                                                 final String pathspec)
+   public static PathspecResults parsePathspec(final ResourceFactory factory, final Resource<?> resource,
+                                               final String pathspec)
    {
       return new PathspecParser(factory, resource, pathspec).resolve();
    }
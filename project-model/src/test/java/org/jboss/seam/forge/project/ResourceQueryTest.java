@@ -0,0 +1,129 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.project.resources.builtin.UnknownFileResource;
+import org.jboss.seam.forge.project.services.ResourceFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceQueryTest
+{
+   private static final String[] NAMES = { "c.txt", "a.java", ".hidden", "b.txt", "d.java", "e.txt" };
+
+   private ResourceFactory factory;
+   private File dir;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      factory = new ResourceFactory();
+      dir = File.createTempFile("forge-query", "");
+      dir.delete();
+      dir.mkdir();
+      for (String name : NAMES)
+      {
+         new File(dir, name).createNewFile();
+      }
+   }
+
+   @After
+   public void tearDown()
+   {
+      for (File file : dir.listFiles())
+      {
+         file.delete();
+      }
+      dir.delete();
+   }
+
+   @Test
+   public void testNamedSortedAndHidden() throws Exception
+   {
+      DirectoryResource resource = new DirectoryResource(factory, dir);
+      assertEquals(Arrays.asList(".hidden", "a.java", "b.txt", "c.txt", "d.java", "e.txt"),
+               names(resource.listResources(ResourceQuery.create().sorted())));
+      assertEquals(Arrays.asList("a.java", "b.txt", "c.txt", "d.java", "e.txt"),
+               names(resource.listResources(ResourceQuery.create().includeHidden(false).sorted())));
+      assertEquals(Arrays.asList("b.txt", "c.txt", "e.txt"),
+               names(resource.listResources(ResourceQuery.create().named("*.txt").sorted())));
+      assertEquals(Arrays.asList("a.java"),
+               names(resource.listResources(ResourceQuery.create().named("?.java").limit(1).sorted())));
+   }
+
+   @Test
+   public void testPagingCreatesOnlyReturnedChildren() throws Exception
+   {
+      final List<String> loaded = new ArrayList<String>();
+      Iterable<Resource<?>> page = ResourceQuery.create().includeHidden(false).sorted().offset(1).limit(2)
+               .apply(NAMES, new ResourceQuery.ChildLoader()
+               {
+                  @Override
+                  public Resource<?> load(final String name)
+                  {
+                     loaded.add(name);
+                     return new UnknownFileResource(factory, new File(dir, name));
+                  }
+               });
+
+      assertEquals(0, loaded.size());
+      assertEquals(Arrays.asList("b.txt", "c.txt"), names(page));
+      assertEquals(Arrays.asList("b.txt", "c.txt"), loaded);
+   }
+
+   @Test
+   public void testFilterIsAppliedBeforePaging() throws Exception
+   {
+      DirectoryResource resource = new DirectoryResource(factory, dir);
+      ResourceQuery query = ResourceQuery.create().sorted().offset(1).limit(1).filter(new ResourceFilter()
+      {
+         @Override
+         public boolean accept(final Resource<?> child)
+         {
+            return child.getName().endsWith(".java");
+         }
+      });
+
+      assertEquals(Arrays.asList("d.java"), names(resource.listResources(query)));
+      assertEquals(Arrays.asList("d.java"), names(query.apply(resource.listResources())));
+   }
+
+   private static List<String> names(final Iterable<Resource<?>> resources)
+   {
+      List<String> names = new ArrayList<String>();
+      for (Resource<?> resource : resources)
+      {
+         names.add(resource.getName());
+      }
+      return names;
+   }
+}
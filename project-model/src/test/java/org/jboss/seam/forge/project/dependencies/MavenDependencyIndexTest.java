@@ -0,0 +1,101 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.project.dependencies;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MavenDependencyIndexTest
+{
+   private final MavenDependencyIndex index;
+
+   public MavenDependencyIndexTest()
+   {
+      List<org.apache.maven.model.Dependency> dependencies = new ArrayList<org.apache.maven.model.Dependency>();
+      dependencies.add(mvn("org.jboss.seam.forge", "forge-shell", "1.0.0"));
+      dependencies.add(mvn("org.jboss.seam.forge", "forge-parser-java", null));
+      dependencies.add(mvn("org.jboss.seam.forge", "forge-shell", "2.0.0"));
+      index = new MavenDependencyIndex(dependencies);
+   }
+
+   private org.apache.maven.model.Dependency mvn(final String groupId, final String artifactId, final String version)
+   {
+      org.apache.maven.model.Dependency dep = new org.apache.maven.model.Dependency();
+      dep.setGroupId(groupId);
+      dep.setArtifactId(artifactId);
+      dep.setVersion(version);
+      return dep;
+   }
+
+   @Test
+   public void testPreservesOrder() throws Exception
+   {
+      assertEquals(3, index.getDependencies().size());
+      assertEquals("forge-parser-java", index.getDependencies().get(1).getArtifactId());
+   }
+
+   @Test
+   public void testContainsMatchesEquivalentVersions() throws Exception
+   {
+      assertTrue(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:1.0")));
+      assertTrue(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-shell")));
+      assertTrue(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-parser-java:3.0")));
+      assertFalse(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:1.5")));
+      assertFalse(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-scaffold")));
+   }
+
+   @Test
+   public void testGetEquivalent() throws Exception
+   {
+      assertEquals(2, index.getEquivalent(DependencyBuilder.create("org.jboss.seam.forge:forge-shell")).size());
+      assertEquals(1, index.getEquivalent(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:2")).size());
+   }
+
+   @Test
+   public void testAddAndRemove() throws Exception
+   {
+      index.add(DependencyBuilder.create("org.jboss.seam.forge:forge-scaffold:1.0"));
+      assertTrue(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-scaffold")));
+      assertEquals("forge-scaffold", index.getDependencies().get(3).getArtifactId());
+
+      index.remove(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:1.0"));
+      assertFalse(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:1.0")));
+      assertTrue(index.contains(DependencyBuilder.create("org.jboss.seam.forge:forge-shell:2.0")));
+      assertEquals(3, index.getDependencies().size());
+      assertEquals("forge-parser-java", index.getDependencies().get(0).getArtifactId());
+   }
+
+   @Test
+   public void testAreEquivalent() throws Exception
+   {
+      assertTrue(MavenDependencyIndex.areEquivalent(DependencyBuilder.create("org.jboss:a:1.0.0"),
+               DependencyBuilder.create("org.jboss:a:1.0")));
+      assertFalse(MavenDependencyIndex.areEquivalent(DependencyBuilder.create("org.jboss:a:1.0.0"),
+               DependencyBuilder.create("org.jboss:b:1.0.0")));
+   }
+}
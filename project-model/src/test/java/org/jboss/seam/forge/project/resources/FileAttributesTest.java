@@ -0,0 +1,92 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.project.resources;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileAttributesTest
+{
+   private File dir;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      dir = File.createTempFile("forge-attributes", "");
+      dir.delete();
+   }
+
+   @After
+   public void tearDown()
+   {
+      dir.delete();
+   }
+
+   @Test
+   public void testAttributesAreSharedUntilRefreshed() throws Exception
+   {
+      DirectoryResource resource = new DirectoryResource(null, dir);
+      FileAttributes attributes = resource.getAttributes();
+      assertSame(attributes, resource.getAttributes());
+      assertFalse(resource.exists());
+
+      // changed behind the resource's back; the snapshot is not consulted again until refreshed or expired
+      dir.mkdir();
+      assertFalse(resource.exists());
+
+      resource.refreshAttributes();
+      assertTrue(resource.exists());
+      assertTrue(resource.getAttributes().isDirectory());
+   }
+
+   @Test
+   public void testChangesThroughResourceRefreshAttributes() throws Exception
+   {
+      DirectoryResource resource = new DirectoryResource(null, dir);
+      assertFalse(resource.exists());
+
+      resource.mkdirs();
+      assertTrue(resource.exists());
+
+      resource.delete();
+      assertFalse(resource.exists());
+   }
+
+   @Test
+   public void testSnapshotExpires() throws Exception
+   {
+      DirectoryResource resource = new DirectoryResource(null, dir);
+      assertFalse(resource.exists());
+
+      dir.mkdir();
+      Thread.sleep(FileAttributes.MAX_AGE_MILLIS + 50);
+      assertTrue(resource.exists());
+   }
+}
@@ -0,0 +1,80 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.resources.builtin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import org.jboss.seam.forge.parser.java.JavaClass;
+import org.jboss.seam.forge.project.services.ResourceFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JavaResourceTest
+{
+   private File file;
+   private JavaResource resource;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      file = File.createTempFile("forge-java", ".java");
+      FileWriter writer = new FileWriter(file);
+      writer.write("package org.example; public class Foo { private int bar; }");
+      writer.close();
+      resource = new JavaResource(new ResourceFactory(), file);
+   }
+
+   @After
+   public void tearDown()
+   {
+      file.delete();
+   }
+
+   @Test
+   public void testCallersGetTheirOwnCopy() throws Exception
+   {
+      JavaClass first = (JavaClass) resource.getJavaSource();
+      first.addField("private String baz;");
+
+      JavaClass second = (JavaClass) resource.getJavaSource();
+      assertNotSame(first, second);
+      assertEquals(1, second.getFields().size());
+      assertEquals(second.getMembers().size(), resource.listResources().size());
+   }
+
+   @Test
+   public void testChangesAreSharedOnceWritten() throws Exception
+   {
+      JavaClass javaClass = (JavaClass) resource.getJavaSource();
+      javaClass.addField("private String baz;");
+      resource.setContents(javaClass);
+
+      assertEquals(2, ((JavaClass) resource.getJavaSource()).getFields().size());
+      assertEquals("org.example.Foo", resource.toString());
+   }
+}
@@ -0,0 +1,211 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.seam.forge.project.events.FileCreated;
+import org.jboss.seam.forge.project.events.FileEvent;
+import org.jboss.seam.forge.project.events.FileModified;
+import org.jboss.seam.forge.project.events.JavaFileCreated;
+import org.jboss.seam.forge.project.resources.FileAttributes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileChangeMonitorTest
+{
+   private File dir;
+   private RecordingMonitor monitor;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      dir = File.createTempFile("forge-monitor", "");
+      dir.delete();
+      dir.mkdir();
+      monitor = new RecordingMonitor();
+   }
+
+   @After
+   public void tearDown()
+   {
+      monitor.stop();
+      delete(dir);
+   }
+
+   @Test
+   public void testCreatedAndModifiedFilesFireEvents() throws Exception
+   {
+      File existing = new File(dir, "pom.xml");
+      write(existing, "<project/>");
+      monitor.watch(dir);
+      new FileAttributes(existing);
+      monitor.poll();
+
+      File created = new File(dir, "Foo.java");
+      write(created, "public class Foo {}");
+      existing.setLastModified(existing.lastModified() - 10000);
+      monitor.poll();
+
+      // the directory itself may also be reported as modified
+      List<FileEvent> events = new ArrayList<FileEvent>(monitor.getEvents());
+      assertTrue(contains(events, JavaFileCreated.class, created));
+      assertTrue(contains(events, FileModified.class, existing));
+
+      monitor.poll();
+      assertEquals(events.size(), monitor.getEvents().size());
+   }
+
+   @Test
+   public void testWatchedAttributesExpireOnChange() throws Exception
+   {
+      File file = new File(dir, "a.txt");
+      monitor.watch(dir);
+      new FileAttributes(file);
+      monitor.poll();
+
+      // taken after the directory was first listed
+      FileAttributes attributes = new FileAttributes(file);
+      assertFalse(attributes.exists());
+      Thread.sleep(FileAttributes.MAX_AGE_MILLIS + 50);
+      assertFalse(attributes.isExpired());
+
+      write(file, "a");
+      monitor.poll();
+      assertTrue(attributes.isExpired());
+      assertTrue(new FileAttributes(file).exists());
+   }
+
+   @Test
+   public void testChangesMadeByForgeExpireAttributesImmediately() throws Exception
+   {
+      File file = new File(dir, "pom.xml");
+      monitor.watch(dir);
+      new FileAttributes(file);
+      monitor.poll();
+
+      FileAttributes listing = new FileAttributes(dir);
+      write(file, "<project/>");
+      FileChangeMonitor.changed(file);
+      assertTrue(listing.isExpired());
+   }
+
+   @Test
+   public void testOnlyDirectoriesLookedAtAreListed() throws Exception
+   {
+      File looked = new File(dir, "looked");
+      File ignored = new File(dir, "ignored");
+      looked.mkdir();
+      ignored.mkdir();
+      monitor.watch(dir);
+      new FileAttributes(looked);
+      monitor.poll();
+
+      File seen = new File(looked, "a.txt");
+      write(seen, "a");
+      write(new File(ignored, "b.txt"), "b");
+      monitor.poll();
+
+      List<FileEvent> events = new ArrayList<FileEvent>(monitor.getEvents());
+      assertTrue(contains(events, FileCreated.class, seen));
+      for (FileEvent event : events)
+      {
+         // the directory itself is listed by its parent, but its contents are not
+         assertFalse(event.getFile().getPath().startsWith(ignored.getAbsolutePath() + File.separator));
+      }
+   }
+
+   @Test
+   public void testUnwatchedFilesAreNotTracked() throws Exception
+   {
+      File hidden = new File(dir, ".hidden");
+      File output = new File(new File(dir, "target"), "classes");
+      assertEquals(FileChangeMonitor.UNWATCHED, FileChangeMonitor.getGeneration(hidden));
+
+      monitor.watch(dir);
+      assertTrue(FileChangeMonitor.getGeneration(dir) != FileChangeMonitor.UNWATCHED);
+      assertEquals(FileChangeMonitor.UNWATCHED, FileChangeMonitor.getGeneration(hidden));
+      assertEquals(FileChangeMonitor.UNWATCHED, FileChangeMonitor.getGeneration(output));
+      assertEquals(FileChangeMonitor.UNWATCHED, FileChangeMonitor.getGeneration(dir.getParentFile()));
+
+      monitor.stop();
+      assertEquals(FileChangeMonitor.UNWATCHED, FileChangeMonitor.getGeneration(dir));
+   }
+
+   private static boolean contains(final List<FileEvent> events, final Class<?> type, final File file)
+   {
+      for (FileEvent event : events)
+      {
+         if (type.isInstance(event) && event.getFile().equals(file.getAbsoluteFile()))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static void delete(final File file)
+   {
+      File[] children = file.listFiles();
+      if (children != null)
+      {
+         for (File child : children)
+         {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+   private static void write(final File file, final String contents) throws Exception
+   {
+      FileWriter writer = new FileWriter(file);
+      writer.write(contents);
+      writer.close();
+   }
+
+   private static class RecordingMonitor extends FileChangeMonitor
+   {
+      private final List<FileEvent> events = Collections.synchronizedList(new ArrayList<FileEvent>());
+
+      @Override
+      protected void fire(final FileEvent event)
+      {
+         events.add(event);
+      }
+
+      public List<FileEvent> getEvents()
+      {
+         return events;
+      }
+   }
+}
@@ -0,0 +1,143 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.seam.forge.project.resources.builtin.JavaResource;
+import org.jboss.seam.forge.project.resources.builtin.maven.MavenPomResource;
+import org.jboss.seam.forge.project.services.ResourceFactory.DispatchTable;
+import org.jboss.seam.forge.project.services.ResourceFactory.ResourceGenerator;
+
+/**
+ * Compares finding the generator for a file name with the {@link DispatchTable} of {@link ResourceFactory}, against
+ * the previous approach of trying each generator's pattern in turn, under a lock, after checking the last type found.
+ * Both are measured from several threads at once, as when listing directories in parallel. This is not run as part of
+ * the build; run it manually with:
+ * <p>
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ *    -Dexec.mainClass=org.jboss.seam.forge.project.services.ResourceFactoryBenchmark</code>
+ */
+public class ResourceFactoryBenchmark
+{
+   private static final String[] NAMES = { "Foo.java", "pom.xml", "README.txt", "Bar.java", "beans.xml",
+            "FooTest.java", "persistence.xml", "Baz.java" };
+   private static final int THREADS = 4;
+   private static final int WARMUP = 500000;
+   private static final int ITERATIONS = 2000000;
+
+   private interface Lookup
+   {
+      ResourceGenerator lookup(String name);
+   }
+
+   public static void main(final String[] args) throws Exception
+   {
+      ResourceFactory factory = new ResourceFactory();
+      final List<ResourceGenerator> generators = new ArrayList<ResourceGenerator>();
+      generators.add(new ResourceGenerator("*.java", new JavaResource(factory)));
+      generators.add(new ResourceGenerator("pom.xml", new MavenPomResource(factory)));
+      generators.add(new ResourceGenerator("*.fsh", new JavaResource(factory)));
+      generators.add(new ResourceGenerator("*-ds.xml", new JavaResource(factory)));
+      final DispatchTable table = new DispatchTable(generators);
+
+      Lookup scan = new Lookup()
+      {
+         private ResourceGenerator last;
+
+         @Override
+         public synchronized ResourceGenerator lookup(final String name)
+         {
+            if ((last != null) && last.matches(name))
+            {
+               return last;
+            }
+            for (ResourceGenerator gen : generators)
+            {
+               if (gen.matches(name))
+               {
+                  return last = gen;
+               }
+            }
+            return null;
+         }
+      };
+      Lookup dispatch = new Lookup()
+      {
+         @Override
+         public ResourceGenerator lookup(final String name)
+         {
+            return table.lookup(name);
+         }
+      };
+
+      System.out.println("Looking up " + ITERATIONS + " names on each of " + THREADS + " threads");
+      measure(scan, WARMUP);
+      measure(dispatch, WARMUP);
+      System.out.println("pattern scan: " + (measure(scan, ITERATIONS) / 1000000) + " ms");
+      System.out.println("dispatch table: " + (measure(dispatch, ITERATIONS) / 1000000) + " ms");
+   }
+
+   private static long measure(final Lookup lookup, final int iterations) throws Exception
+   {
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try
+      {
+         List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+         long start = System.nanoTime();
+         for (int i = 0; i < THREADS; i++)
+         {
+            results.add(executor.submit(new Callable<Integer>()
+            {
+               @Override
+               public Integer call()
+               {
+                  int found = 0;
+                  for (int j = 0; j < iterations; j++)
+                  {
+                     if (lookup.lookup(NAMES[j % NAMES.length]) != null)
+                     {
+                        found++;
+                     }
+                  }
+                  return found;
+               }
+            }));
+         }
+         for (Future<Integer> result : results)
+         {
+            result.get();
+         }
+         return System.nanoTime() - start;
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+}
@@ -0,0 +1,140 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.jboss.seam.forge.project.Resource;
+import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.project.resources.builtin.JavaResource;
+import org.jboss.seam.forge.project.resources.builtin.UnknownFileResource;
+import org.jboss.seam.forge.project.resources.builtin.maven.MavenPomResource;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResourceFactoryTest
+{
+   private ResourceFactory factory;
+   private File dir;
+
+   @Before
+   public void setUp()
+   {
+      factory = new ResourceFactory();
+      factory.register("*.java", new JavaResource(factory));
+      factory.register("pom.xml", new MavenPomResource(factory));
+      factory.register("Test?.txt", new JavaResource(factory));
+      factory.register("*Test.java", new MavenPomResource(factory));
+      dir = new File(System.getProperty("java.io.tmpdir"));
+   }
+
+   @Test
+   public void testExactNames() throws Exception
+   {
+      assertEquals(MavenPomResource.class, factory.getResourceFrom(new File(dir, "pom.xml")).getClass());
+      assertEquals(UnknownFileResource.class, factory.getResourceFrom(new File(dir, "pomAxml")).getClass());
+      assertEquals(UnknownFileResource.class, factory.getResourceFrom(new File(dir, "my-pom.xml")).getClass());
+   }
+
+   @Test
+   public void testLongestSuffixWins() throws Exception
+   {
+      assertEquals(JavaResource.class, factory.getResourceFrom(new File(dir, "Foo.java")).getClass());
+      assertEquals(MavenPomResource.class, factory.getResourceFrom(new File(dir, "FooTest.java")).getClass());
+      assertEquals(JavaResource.class, factory.getResourceFrom(new File(dir, ".java")).getClass());
+      assertEquals(UnknownFileResource.class, factory.getResourceFrom(new File(dir, "Foo.javax")).getClass());
+   }
+
+   @Test
+   public void testPatterns() throws Exception
+   {
+      assertEquals(JavaResource.class, factory.getResourceFrom(new File(dir, "Test1.txt")).getClass());
+      assertEquals(UnknownFileResource.class, factory.getResourceFrom(new File(dir, "Test12.txt")).getClass());
+      assertEquals(UnknownFileResource.class, factory.getResourceFrom(new File(dir, "Test1xtxt")).getClass());
+   }
+
+   @Test
+   public void testDirectoriesAndRelativeFiles() throws Exception
+   {
+      assertEquals(DirectoryResource.class, factory.getResourceFrom(dir).getClass());
+      File relative = new File("Foo.java");
+      assertTrue(factory.getResourceFrom(relative).getUnderlyingResourceObject().isAbsolute());
+   }
+
+   @Test
+   public void testCreateFromType() throws Exception
+   {
+      File file = new File(dir, "whatever");
+      JavaResource resource = factory.createFromType(JavaResource.class, file);
+      assertEquals(file, resource.getUnderlyingResourceObject());
+   }
+
+   @Test
+   public void testSamePathYieldsSameResource() throws Exception
+   {
+      File file = new File(dir, "Foo.java");
+      Resource<File> resource = factory.getResourceFrom(file);
+      assertSame(resource, factory.getResourceFrom(new File(dir, "Foo.java")));
+      assertSame(resource, factory.getResourceFrom(new File(new File(dir, "."), "x/../Foo.java")));
+      assertSame(factory.getResourceFrom(dir), resource.getParent());
+      assertSame(resource.getParent(), factory.getDirectoryFrom(dir));
+      assertEquals(file.getAbsolutePath().replace(File.separatorChar, '/'), resource.getFullyQualifiedName());
+   }
+
+   @Test
+   public void testResourceIsReplacedWhenTypeChanges() throws Exception
+   {
+      File file = File.createTempFile("forge-factory", "");
+      file.delete();
+      try
+      {
+         Resource<File> missing = factory.getResourceFrom(file);
+         assertEquals(UnknownFileResource.class, missing.getClass());
+
+         file.mkdir();
+         Resource<File> directory = factory.getResourceFrom(file);
+         assertEquals(DirectoryResource.class, directory.getClass());
+         assertNotSame(missing, directory);
+         assertSame(directory, factory.getResourceFrom(file));
+      }
+      finally
+      {
+         file.delete();
+      }
+   }
+
+   @Test
+   public void testNormalize() throws Exception
+   {
+      String root = File.listRoots()[0].getPath();
+      assertEquals(new File(root), ResourceFactory.normalize(new File(root + "..")));
+      assertEquals(new File(root, "a"), ResourceFactory.normalize(new File(root + "a" + File.separator + ".")));
+      assertEquals(new File(root, ".a"), ResourceFactory.normalize(new File(root + "b" + File.separator + ".."
+               + File.separator + ".a")));
+   }
+}
@@ -0,0 +1,102 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.project.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.jboss.seam.forge.project.Resource;
+import org.jboss.seam.forge.project.ResourceFlag;
+import org.jboss.seam.forge.project.services.ResourceFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PathspecParserTest
+{
+   private ResourceFactory factory;
+   private File dir;
+   private Resource<?> root;
+
+   @Before
+   public void setUp() throws Exception
+   {
+      dir = File.createTempFile("forge-pathspec", "");
+      dir.delete();
+      new File(dir, "src").mkdirs();
+      new File(dir, "site").mkdirs();
+      factory = new ResourceFactory();
+      root = factory.getResourceFrom(dir);
+   }
+
+   @After
+   public void tearDown()
+   {
+      new File(dir, "src").delete();
+      new File(dir, "site").delete();
+      dir.delete();
+   }
+
+   @Test
+   public void testWildcardMatchesAreAmbiguousInTheirResults() throws Exception
+   {
+      PathspecResults matches = resolve("s*");
+      assertEquals(2, matches.size());
+      for (Resource<?> match : matches)
+      {
+         assertTrue(matches.isAmbiguouslyQualified(match));
+      }
+
+      PathspecResults exact = resolve("src");
+      assertFalse(exact.isAmbiguouslyQualified(exact.get(0)));
+   }
+
+   @Test
+   public void testWildcardMatchesAreSharedResources() throws Exception
+   {
+      Resource<?> src = factory.getResourceFrom(new File(dir, "src"));
+      assertSame(src, resolve("sr?").get(0));
+      assertSame(src, resolve("src").get(0));
+      assertFalse(src.isFlagSet(ResourceFlag.AmbiguouslyQualified));
+   }
+
+   @Test
+   public void testExactPathAfterWildcardIsNotAmbiguous() throws Exception
+   {
+      PathspecResults matches = resolve("s*/.");
+      assertEquals(2, matches.size());
+      assertFalse(matches.isAmbiguouslyQualified(matches.get(1)));
+
+      PathspecResults current = new PathspecParser(factory, resolve("sr?").get(0), ".").resolve();
+      assertFalse(current.isAmbiguouslyQualified(current.get(0)));
+   }
+
+   private PathspecResults resolve(final String path)
+   {
+      return new PathspecParser(factory, root, path).resolve();
+   }
+}
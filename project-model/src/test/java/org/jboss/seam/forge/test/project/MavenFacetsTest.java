@@ -23,12 +23,14 @@
 package org.jboss.seam.forge.test.project;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
 
 import javax.inject.Inject;
@@ -36,6 +38,7 @@ import javax.inject.Singleton;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.seam.forge.parser.JavaParser;
 import org.jboss.seam.forge.parser.java.JavaClass;
@@ -143,6 +146,40 @@ public class MavenFacetsTest extends ProjectModelTest
       assertEquals(pom.getArtifactId(), result.getArtifactId());
    }
 
+   @Test
+   public void testPOMIsCachedBetweenReads() throws Exception
+   {
+      MavenCoreFacet maven = getProject().getFacet(MavenCoreFacet.class);
+      maven.getPOM().setArtifactId("not-saved");
+
+      long misses = maven.getCacheMisses();
+      long hits = maven.getCacheHits();
+      Model pom = maven.getPOM();
+
+      assertEquals(misses, maven.getCacheMisses());
+      assertEquals(hits + 1, maven.getCacheHits());
+      assertFalse("not-saved".equals(pom.getArtifactId()));
+   }
+
+   @Test
+   public void testPOMIsReloadedAfterExternalChange() throws Exception
+   {
+      MavenCoreFacet maven = getProject().getFacet(MavenCoreFacet.class);
+      Model pom = maven.getPOM();
+      pom.setVersion("EXTERNAL-SNAPSHOT");
+
+      File file = pom.getPomFile();
+      long lastModified = file.lastModified();
+      FileWriter fw = new FileWriter(file);
+      new MavenXpp3Writer().write(fw, pom);
+      fw.close();
+      file.setLastModified(lastModified + 2000);
+
+      long misses = maven.getCacheMisses();
+      assertEquals("EXTERNAL-SNAPSHOT", maven.getPOM().getVersion());
+      assertEquals(misses + 1, maven.getCacheMisses());
+   }
+
    @Test
    public void testProjectIsCurrentProject() throws Exception
    {
@@ -113,6 +113,40 @@ public class MavenDependencyFacetTest extends ProjectModelTest
       assertFalse(deps.hasDependency(dependency));
    }
 
+   @Test
+   public void testTransactionAppliesAllChanges() throws Exception
+   {
+      Dependency first = DependencyBuilder.create("org.jboss:test-dependency-tx1:1.0.0.Final");
+      Dependency second = DependencyBuilder.create("org.jboss:test-dependency-tx2:1.0.0.Final");
+
+      Project project = getProject();
+      DependencyFacet deps = project.getFacet(DependencyFacet.class);
+      deps.beginTransaction();
+      deps.addDependency(first);
+      deps.addDependency(second);
+      deps.setProperty("tx.version", "1.0");
+      assertTrue(deps.hasDirectDependency(first));
+      deps.commitTransaction();
+
+      assertFalse(deps.isTransactionActive());
+      assertTrue(deps.hasDirectDependency(first));
+      assertTrue(deps.hasDirectDependency(second));
+      assertEquals("1.0", deps.getProperty("tx.version"));
+   }
+
+   @Test
+   public void testTransactionRollback() throws Exception
+   {
+      Dependency dependency = DependencyBuilder.create("org.jboss:test-dependency-tx3:1.0.0.Final");
+
+      DependencyFacet deps = getProject().getFacet(DependencyFacet.class);
+      deps.beginTransaction();
+      deps.addDependency(dependency);
+      deps.rollbackTransaction();
+
+      assertFalse(deps.hasDirectDependency(dependency));
+   }
+
    @Test
    public void testAddProperty() throws Exception
    {
@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.test.project.facets.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.apache.maven.model.Model;
+import org.jboss.seam.forge.project.Project;
+import org.jboss.seam.forge.project.dependencies.Dependency;
+import org.jboss.seam.forge.project.dependencies.DependencyBuilder;
+import org.jboss.seam.forge.project.dependencies.MavenDependencyIndex;
+import org.jboss.seam.forge.project.facets.MavenCoreFacet;
+import org.jboss.seam.forge.project.facets.builtin.MavenDependencyFacet;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MavenDependencyFacetTransactionTest
+{
+   private static final Dependency FIRST = DependencyBuilder.create("org.jboss:tx1:1.0.0.Final");
+   private static final Dependency SECOND = DependencyBuilder.create("org.jboss:tx2:1.0.0.Final");
+
+   private Model pom;
+   private int writes;
+   private RuntimeException writeFailure;
+   private MavenDependencyFacet deps;
+
+   @Before
+   public void setUp()
+   {
+      pom = new Model();
+      writes = 0;
+      writeFailure = null;
+
+      final MavenCoreFacet maven = (MavenCoreFacet) Proxy.newProxyInstance(getClass().getClassLoader(),
+               new Class<?>[] { MavenCoreFacet.class }, new InvocationHandler()
+               {
+                  @Override
+                  public Object invoke(final Object proxy, final Method method, final Object[] args)
+                  {
+                     String name = method.getName();
+                     if ("getPOM".equals(name))
+                     {
+                        return pom.clone();
+                     }
+                     else if ("setPOM".equals(name))
+                     {
+                        writes++;
+                        if (writeFailure != null)
+                        {
+                           throw writeFailure;
+                        }
+                        pom = (Model) args[0];
+                        return null;
+                     }
+                     else if ("getDependencyIndex".equals(name) || "getDirectDependencyIndex".equals(name))
+                     {
+                        return new MavenDependencyIndex(pom.getDependencies());
+                     }
+                     throw new UnsupportedOperationException(name);
+                  }
+               });
+      Project project = (Project) Proxy.newProxyInstance(getClass().getClassLoader(),
+               new Class<?>[] { Project.class }, new InvocationHandler()
+               {
+                  @Override
+                  public Object invoke(final Object proxy, final Method method, final Object[] args)
+                  {
+                     if ("getFacet".equals(method.getName()) && (args[0] == MavenCoreFacet.class))
+                     {
+                        return maven;
+                     }
+                     throw new UnsupportedOperationException(method.getName());
+                  }
+               });
+
+      deps = new MavenDependencyFacet(null);
+      deps.setProject(project);
+   }
+
+   @Test
+   public void testTransactionWritesPOMOnce() throws Exception
+   {
+      deps.beginTransaction();
+      deps.addDependency(FIRST);
+      deps.beginTransaction();
+      deps.addDependency(SECOND);
+      deps.setProperty("tx.version", "1.0");
+      deps.commitTransaction();
+      assertEquals(0, writes);
+      deps.commitTransaction();
+
+      assertEquals(1, writes);
+      assertFalse(deps.isTransactionActive());
+      assertTrue(deps.hasDirectDependency(FIRST));
+      assertTrue(deps.hasDirectDependency(SECOND));
+      assertEquals("1.0", deps.getProperty("tx.version"));
+   }
+
+   @Test
+   public void testFailedCommitCanBeRolledBack() throws Exception
+   {
+      writeFailure = new IllegalArgumentException("disk full");
+      deps.beginTransaction();
+      deps.addDependency(FIRST);
+      try
+      {
+         deps.commitTransaction();
+         fail();
+      }
+      catch (IllegalArgumentException e)
+      {
+         assertSame(writeFailure, e);
+      }
+
+      assertTrue(deps.isTransactionActive());
+      deps.rollbackTransaction();
+      assertFalse(deps.isTransactionActive());
+      assertFalse(deps.hasDirectDependency(FIRST));
+   }
+
+   @Test
+   public void testNestedRollbackDiscardsOuterChanges() throws Exception
+   {
+      deps.beginTransaction();
+      deps.addDependency(FIRST);
+      deps.beginTransaction();
+      deps.addDependency(SECOND);
+      deps.rollbackTransaction();
+      assertTrue(deps.isTransactionActive());
+      deps.commitTransaction();
+
+      assertEquals(0, writes);
+      assertFalse(deps.isTransactionActive());
+      assertFalse(deps.hasDirectDependency(FIRST));
+      assertFalse(deps.hasDirectDependency(SECOND));
+   }
+
+   @Test
+   public void testRemovalIsVisibleInsideTransaction() throws Exception
+   {
+      deps.addDependency(FIRST);
+      deps.beginTransaction();
+      assertTrue(deps.hasDependency(FIRST));
+      deps.removeDependency(FIRST);
+      assertFalse(deps.hasDependency(FIRST));
+      assertFalse(deps.hasDirectDependency(FIRST));
+      assertTrue(deps.getDependencies().isEmpty());
+
+      deps.addDependency(FIRST);
+      deps.addDependency(SECOND);
+      assertTrue(deps.hasDependency(FIRST));
+      assertEquals(2, deps.getDependencies().size());
+      deps.commitTransaction();
+
+      assertEquals(2, writes);
+      assertEquals(2, pom.getDependencies().size());
+   }
+
+   @Test
+   public void testRollbackWithoutTransactionDoesNothing() throws Exception
+   {
+      deps.rollbackTransaction();
+      assertFalse(deps.isTransactionActive());
+      deps.addDependency(FIRST);
+      assertEquals(1, writes);
+   }
+}
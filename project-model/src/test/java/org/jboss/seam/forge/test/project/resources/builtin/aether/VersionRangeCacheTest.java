@@ -0,0 +1,141 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.test.project.resources.builtin.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.jboss.seam.forge.project.dependencies.DependencyRepository;
+import org.jboss.seam.forge.project.dependencies.DependencyRepositoryImpl;
+import org.jboss.seam.forge.project.resources.builtin.aether.VersionRangeCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VersionRangeCacheTest
+{
+   private static final String GAVS = "com.ocpsoft:prettyfaces-jsf2:[0,)";
+
+   private File file;
+
+   @Before
+   public void createCacheFile() throws Exception
+   {
+      file = File.createTempFile("version-range-cache", null);
+      file.delete();
+      file.deleteOnExit();
+   }
+
+   @Test
+   public void testKeyIgnoresRepositoryOrder() throws Exception
+   {
+      DependencyRepository central = new DependencyRepositoryImpl("central", "http://repo1.maven.org/maven2/");
+      DependencyRepository jboss = new DependencyRepositoryImpl("jboss", "http://repository.jboss.org/");
+
+      assertEquals(VersionRangeCache.key(GAVS, Arrays.asList(central, jboss)),
+               VersionRangeCache.key(GAVS, Arrays.asList(jboss, central)));
+   }
+
+   @Test
+   public void testEntriesSurviveReload() throws Exception
+   {
+      List<String> versions = Arrays.asList("3.0.0", "3.0.1", "3.1.0");
+      VersionRangeCache cache = new VersionRangeCache(file, 60000, 60000);
+      cache.put(GAVS, versions);
+      cache.flush();
+
+      assertEquals(versions, new VersionRangeCache(file, 60000, 60000).get(GAVS));
+   }
+
+   @Test
+   public void testExpiredEntriesAreNotReturned() throws Exception
+   {
+      VersionRangeCache original = new VersionRangeCache(file, 60000, 60000);
+      original.put(GAVS, Arrays.asList("3.0.0"));
+      original.flush();
+
+      VersionRangeCache cache = new VersionRangeCache(file, -1, 60000);
+
+      assertNull(cache.get(GAVS));
+      assertEquals(Arrays.asList("3.0.0"), cache.getExpired(GAVS));
+   }
+
+   @Test
+   public void testExpiredEntriesAreKeptForFallback() throws Exception
+   {
+      VersionRangeCache original = new VersionRangeCache(file, 60000, 60000);
+      original.put(GAVS, Arrays.asList("3.0.0"));
+      original.flush();
+
+      VersionRangeCache expired = new VersionRangeCache(file, -1, 60000);
+      expired.put("other:artifact:[0,)", Arrays.asList("1.0"));
+      expired.flush();
+
+      assertEquals(Arrays.asList("3.0.0"), new VersionRangeCache(file, -1, 60000).getExpired(GAVS));
+   }
+
+   @Test
+   public void testStaleEntriesArePurged() throws Exception
+   {
+      VersionRangeCache original = new VersionRangeCache(file, 60000, 60000);
+      original.put(GAVS, Arrays.asList("3.0.0"));
+      original.flush();
+
+      VersionRangeCache stale = new VersionRangeCache(file, -1, -1);
+      assertNull(stale.getExpired(GAVS));
+      stale.put("other:artifact:[0,)", Arrays.asList("1.0"));
+      stale.flush();
+
+      Properties properties = new Properties();
+      InputStream stream = new FileInputStream(file);
+      try
+      {
+         properties.load(stream);
+      }
+      finally
+      {
+         stream.close();
+      }
+      assertEquals(0, properties.size());
+   }
+
+   @Test
+   public void testConcurrentWritersAreMerged() throws Exception
+   {
+      VersionRangeCache first = new VersionRangeCache(file, 60000, 60000);
+      VersionRangeCache second = new VersionRangeCache(file, 60000, 60000);
+      first.put(GAVS, Arrays.asList("3.0.0"));
+      second.put("other:artifact:[0,)", Arrays.asList("1.0"));
+      first.flush();
+      second.flush();
+
+      VersionRangeCache cache = new VersionRangeCache(file, 60000, 60000);
+      assertEquals(Arrays.asList("3.0.0"), cache.get(GAVS));
+      assertEquals(Arrays.asList("1.0"), cache.get("other:artifact:[0,)"));
+   }
+}
@@ -144,25 +144,39 @@ public class ScaffoldPlugin implements Plugin
       Project project = shell.getCurrentProject();
       DependencyFacet df = project.getFacet(DependencyFacet.class);
       CDIFacet cdi = project.getFacet(CDIFacet.class);
-      if (!df.hasDependency(metawidget))
-      {
-         df.addDependency(metawidget);
-      }
-      if (!df.hasDependency(seamPersist))
+
+      df.beginTransaction();
+      try
       {
-         df.addDependency(seamPersist);
-         BeansModel config = cdi.getConfig();
-         String persistenceInterceptor = "org.jboss.seam.persistence.transaction.TransactionInterceptor";
-         List<String> interceptors = config.getInterceptors();
-         if (!interceptors.contains(persistenceInterceptor))
+         if (!df.hasDependency(metawidget))
          {
-            interceptors.add(persistenceInterceptor);
+            df.addDependency(metawidget);
          }
-         cdi.saveConfig(config);
+         if (!df.hasDependency(seamPersist))
+         {
+            df.addDependency(seamPersist);
+            BeansModel config = cdi.getConfig();
+            String persistenceInterceptor = "org.jboss.seam.persistence.transaction.TransactionInterceptor";
+            List<String> interceptors = config.getInterceptors();
+            if (!interceptors.contains(persistenceInterceptor))
+            {
+               interceptors.add(persistenceInterceptor);
+            }
+            cdi.saveConfig(config);
+         }
+         if (!df.hasDependency(weldX))
+         {
+            df.addDependency(weldX);
+         }
+         df.commitTransaction();
       }
-      if (!df.hasDependency(weldX))
+      catch (RuntimeException e)
       {
-         df.addDependency(weldX);
+         if (df.isTransactionActive())
+         {
+            df.rollbackTransaction();
+         }
+         throw e;
       }
       return project;
    }
@@ -81,6 +81,12 @@ public interface Shell extends ShellPrintWriter
     */
    void setVerbose(boolean verbose);
 
+   /**
+    * Return false if no one is available to answer prompts, as when running scripts in batch mode. In that case every
+    * prompt fails instead of waiting for input.
+    */
+   boolean isInteractive();
+
    /**
     * Clear the console.
     */
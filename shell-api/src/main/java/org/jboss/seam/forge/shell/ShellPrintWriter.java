@@ -42,4 +42,22 @@ public interface ShellPrintWriter
    public String renderColor(ShellColor color, String s);
 
    public void write(byte b);
+
+   /**
+    * Write <code>len</code> characters of the given buffer, starting at <code>off</code>. Output is buffered and not
+    * color rendered, so this is the preferred way to copy large amounts of text.
+    */
+   public void write(char[] b, int off, int len);
+
+   /**
+    * Write <code>len</code> characters of the given {@link CharSequence}, starting at <code>off</code>.
+    * 
+    * @see #write(char[], int, int)
+    */
+   public void write(CharSequence s, int off, int len);
+
+   /**
+    * Write out any output that is still buffered.
+    */
+   public void flush();
 }
@@ -33,5 +33,9 @@ public interface PipeOut extends ShellPrintWriter
 
    public void setPiped(boolean v);
 
+   /**
+    * Return the output buffered so far by this {@link PipeOut}, or null if its output is streamed directly to the next
+    * command in the pipeline.
+    */
    public String getBuffer();
 }
@@ -0,0 +1,442 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.shell;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs many shell scripts without user interaction. Each script is executed by a separate shell process, with the
+ * directory containing the script as its working directory, so that scripts generating independent projects do not
+ * share any shell or project state and may run concurrently. Each process is also given its own config directory,
+ * beside its log file, so that scripts never share the shell's config file or command history.
+ * <p>
+ * Scripts in the same directory do share that working directory, so they must not create files or projects of the
+ * same name.
+ * <p>
+ * Usage: <code>--batch [--threads N] [--log-dir DIR] [--timeout SECONDS] (script.fsh | directory)...</code>
+ * <p>
+ * A directory runs every <code>.fsh</code> script it contains. Scripts cannot prompt for input; a script still
+ * running after the timeout (30 minutes by default) is killed. Once all scripts have finished, a tab-separated summary
+ * line (script, exit status, elapsed milliseconds, log file) is printed for each script, in the order given.
+ */
+public class BatchRunner
+{
+   public static final String BATCH_OPTION = "--batch";
+   public static final String EXECUTE_OPTION = "--execute";
+
+   private static final String THREADS_OPTION = "--threads";
+   private static final String LOG_DIR_OPTION = "--log-dir";
+   private static final String TIMEOUT_OPTION = "--timeout";
+   private static final String SCRIPT_SUFFIX = ".fsh";
+   private static final String PROPERTY_PREFIX = "seam.forge.";
+
+   public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+   private final int threads;
+   private final File logDirectory;
+   private final long timeoutMillis;
+
+   private static ScheduledExecutorService timer;
+
+   public BatchRunner(final int threads, final File logDirectory)
+   {
+      this(threads, logDirectory, DEFAULT_TIMEOUT_MILLIS);
+   }
+
+   public BatchRunner(final int threads, final File logDirectory, final long timeoutMillis)
+   {
+      if (threads < 1)
+      {
+         throw new IllegalArgumentException("At least one thread is required");
+      }
+      if (timeoutMillis < 1)
+      {
+         throw new IllegalArgumentException("The timeout must be positive");
+      }
+      this.threads = threads;
+      this.logDirectory = logDirectory;
+      this.timeoutMillis = timeoutMillis;
+   }
+
+   /**
+    * Parse the given batch arguments, run all scripts, and print the summary to {@link System#out}.
+    *
+    * @return the process exit status: 0 if every script succeeded, 1 otherwise
+    */
+   public static int run(final List<String> args)
+   {
+      int threads = Runtime.getRuntime().availableProcessors();
+      File logDirectory = new File(System.getProperty("java.io.tmpdir"), "forge-batch-" + System.currentTimeMillis());
+      long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+      List<File> targets = new ArrayList<File>();
+
+      try
+      {
+         for (int i = 0; i < args.size(); i++)
+         {
+            String arg = args.get(i);
+            if (THREADS_OPTION.equals(arg) && (i + 1 < args.size()))
+            {
+               threads = Integer.parseInt(args.get(++i));
+            }
+            else if (LOG_DIR_OPTION.equals(arg) && (i + 1 < args.size()))
+            {
+               logDirectory = new File(args.get(++i));
+            }
+            else if (TIMEOUT_OPTION.equals(arg) && (i + 1 < args.size()))
+            {
+               timeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args.get(++i)));
+            }
+            else
+            {
+               targets.add(new File(arg));
+            }
+         }
+
+         List<Result> results = new BatchRunner(threads, logDirectory, timeoutMillis).execute(collectScripts(targets));
+         printSummary(results, System.out);
+
+         for (Result result : results)
+         {
+            if (result.getStatus() != 0)
+            {
+               return 1;
+            }
+         }
+         return 0;
+      }
+      catch (IllegalArgumentException e)
+      {
+         System.err.println(e.getMessage());
+         System.err.println("usage: " + BATCH_OPTION + " [" + THREADS_OPTION + " N] [" + LOG_DIR_OPTION
+                  + " DIR] [" + TIMEOUT_OPTION + " SECONDS] (script" + SCRIPT_SUFFIX + " | directory)...");
+         return 2;
+      }
+   }
+
+   /**
+    * Expand the given targets into the list of scripts to run. Files are taken as they are; directories contribute
+    * each <code>.fsh</code> script they contain, in name order.
+    */
+   public static List<File> collectScripts(final List<File> targets)
+   {
+      List<File> scripts = new ArrayList<File>();
+      for (File target : targets)
+      {
+         if (target.isDirectory())
+         {
+            File[] found = target.listFiles(new FileFilter()
+            {
+               @Override
+               public boolean accept(final File file)
+               {
+                  return file.isFile() && file.getName().endsWith(SCRIPT_SUFFIX);
+               }
+            });
+            if ((found == null) || (found.length == 0))
+            {
+               throw new IllegalArgumentException("No " + SCRIPT_SUFFIX + " scripts found in directory: " + target);
+            }
+            Arrays.sort(found);
+            scripts.addAll(Arrays.asList(found));
+         }
+         else if (target.isFile())
+         {
+            scripts.add(target);
+         }
+         else
+         {
+            throw new IllegalArgumentException("No such script or directory: " + target);
+         }
+      }
+      return scripts;
+   }
+
+   /**
+    * Run each of the given scripts in its own shell process, at most {@link #threads} at a time, and return their
+    * results in the same order as the scripts.
+    */
+   public List<Result> execute(final List<File> scripts)
+   {
+      if (!logDirectory.isDirectory() && !logDirectory.mkdirs())
+      {
+         throw new IllegalArgumentException("Could not create log directory: " + logDirectory);
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, scripts.size())),
+               new ThreadFactory()
+               {
+                  @Override
+                  public Thread newThread(final Runnable runnable)
+                  {
+                     Thread thread = new Thread(runnable, "forge-batch");
+                     thread.setDaemon(true);
+                     return thread;
+                  }
+               });
+
+      try
+      {
+         List<Future<Result>> futures = new ArrayList<Future<Result>>(scripts.size());
+         for (int i = 0; i < scripts.size(); i++)
+         {
+            final File script = scripts.get(i).getAbsoluteFile();
+            final File log = new File(logDirectory, i + "-" + script.getName() + ".log");
+            final File configDir = new File(logDirectory, i + "-" + script.getName() + ".forge");
+            futures.add(executor.submit(new Callable<Result>()
+            {
+               @Override
+               public Result call() throws Exception
+               {
+                  return runScript(script, configDir, log);
+               }
+            }));
+         }
+
+         List<Result> results = new ArrayList<Result>(futures.size());
+         for (Future<Result> future : futures)
+         {
+            results.add(future.get());
+         }
+         return results;
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while running batch scripts", e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new IllegalStateException(e.getCause());
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Return the command line of the shell process that runs the given script, using the given config directory.
+    */
+   protected List<String> createCommand(final File script, final File configDir)
+   {
+      List<String> command = new ArrayList<String>();
+      command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+      for (Entry<Object, Object> property : System.getProperties().entrySet())
+      {
+         String name = property.getKey().toString();
+         if (name.startsWith(PROPERTY_PREFIX) && !name.equals(ShellImpl.CONFIG_DIR_PROPERTY))
+         {
+            command.add("-D" + name + "=" + property.getValue());
+         }
+      }
+      command.add("-D" + ShellImpl.CONFIG_DIR_PROPERTY + "=" + configDir.getAbsolutePath());
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(Bootstrap.class.getName());
+      command.add(EXECUTE_OPTION);
+      command.add(script.getPath());
+      return command;
+   }
+
+   private Result runScript(final File script, final File configDir, final File log) throws IOException
+   {
+      long start = System.currentTimeMillis();
+      final AtomicBoolean timedOut = new AtomicBoolean();
+      OutputStream out = new FileOutputStream(log);
+      try
+      {
+         final Process process = new ProcessBuilder(createCommand(script, configDir)).directory(script.getParentFile())
+                  .redirectErrorStream(true).start();
+         ScheduledFuture<?> timeout = getTimer().schedule(new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               timedOut.set(true);
+               process.destroy();
+            }
+         }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+         try
+         {
+            /*
+             * No one is at the keyboard; the shell runs non-interactively, and any prompt sees end of input.
+             */
+            process.getOutputStream().close();
+            copy(process.getInputStream(), out);
+            int status = process.waitFor();
+            if (timedOut.get())
+            {
+               return timedOut(script, start, log, out);
+            }
+            return new Result(script, status, System.currentTimeMillis() - start, log);
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            return new Result(script, -1, System.currentTimeMillis() - start, log);
+         }
+         finally
+         {
+            timeout.cancel(false);
+            process.destroy();
+         }
+      }
+      catch (IOException e)
+      {
+         if (timedOut.get())
+         {
+            return timedOut(script, start, log, out);
+         }
+         e.printStackTrace(new PrintStream(out, true));
+         return new Result(script, -1, System.currentTimeMillis() - start, log);
+      }
+      finally
+      {
+         out.close();
+      }
+   }
+
+   private Result timedOut(final File script, final long start, final File log, final OutputStream out)
+   {
+      new PrintStream(out, true).println("Killed after " + timeoutMillis + "ms: " + script);
+      return new Result(script, Result.TIMED_OUT, System.currentTimeMillis() - start, log);
+   }
+
+   private static synchronized ScheduledExecutorService getTimer()
+   {
+      if (timer == null)
+      {
+         timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-batch-timeout");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return timer;
+   }
+
+   private static void copy(final InputStream in, final OutputStream out) throws IOException
+   {
+      byte[] buf = new byte[8192];
+      int read;
+      while ((read = in.read(buf)) != -1)
+      {
+         out.write(buf, 0, read);
+      }
+   }
+
+   /**
+    * Print a tab-separated summary of the given results, one line per script, preceded by a header line starting with
+    * <code>#</code>.
+    */
+   public static void printSummary(final List<Result> results, final PrintStream out)
+   {
+      out.println("#script\tstatus\tmillis\tlog");
+      for (Result result : results)
+      {
+         out.println(result);
+      }
+      out.flush();
+   }
+
+   /**
+    * The outcome of a single script run by the {@link BatchRunner}.
+    */
+   public static class Result
+   {
+      /**
+       * The status of a script that was killed because it did not finish in time.
+       */
+      public static final int TIMED_OUT = -2;
+
+      private final File script;
+      private final int status;
+      private final long millis;
+      private final File log;
+
+      public Result(final File script, final int status, final long millis, final File log)
+      {
+         this.script = script;
+         this.status = status;
+         this.millis = millis;
+         this.log = log;
+      }
+
+      public File getScript()
+      {
+         return script;
+      }
+
+      /**
+       * Return the exit status of the shell process that ran the script: 0 on success, -1 if the process could not be
+       * run, or {@link #TIMED_OUT}.
+       */
+      public int getStatus()
+      {
+         return status;
+      }
+
+      public long getMillis()
+      {
+         return millis;
+      }
+
+      public File getLog()
+      {
+         return log;
+      }
+
+      @Override
+      public String toString()
+      {
+         return script.getPath() + "\t" + status + "\t" + millis + "\t" + log.getPath();
+      }
+   }
+}
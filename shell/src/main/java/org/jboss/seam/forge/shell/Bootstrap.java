@@ -22,6 +22,8 @@
 
 package org.jboss.seam.forge.shell;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -48,11 +50,29 @@ public class Bootstrap
 
    public static void main(final String[] args)
    {
+      if ((args.length > 0) && BatchRunner.BATCH_OPTION.equals(args[0]))
+      {
+         System.exit(BatchRunner.run(Arrays.asList(args).subList(1, args.length)));
+      }
+
       initLogging();
       Weld weld = new Weld();
       WeldContainer container = weld.initialize();
       BeanManager manager = container.getBeanManager();
       manager.fireEvent(new Startup());
+
+      if ((args.length > 1) && BatchRunner.EXECUTE_OPTION.equals(args[0]))
+      {
+         /*
+          * Headless mode: run a single script and report its outcome through the exit status.
+          */
+         ShellImpl shell = container.instance().select(ShellImpl.class).get();
+         shell.setInteractive(false);
+         boolean success = shell.executeScript(new File(args[1]));
+         weld.shutdown();
+         System.exit(success ? 0 : 1);
+      }
+
       manager.fireEvent(new AcceptUserInput());
       weld.shutdown();
    }
@@ -24,15 +24,17 @@ package org.jboss.seam.forge.shell;
 
 import static org.mvel2.DataConversion.addConversionHandler;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -77,11 +79,12 @@ import org.jboss.seam.forge.shell.plugins.events.Startup;
 import org.jboss.seam.forge.shell.project.CurrentProject;
 import org.jboss.seam.forge.shell.util.Files;
 import org.jboss.seam.forge.shell.util.GeneralUtils;
+import org.jboss.seam.forge.shell.util.HistoryStore;
+import org.jboss.seam.forge.shell.util.ShellOutputBuffer;
 import org.jboss.seam.forge.shell.util.ShellColor;
 import org.jboss.weld.environment.se.bindings.Parameters;
 import org.mvel2.ConversionHandler;
 import org.mvel2.DataConversion;
-import org.mvel2.util.StringAppender;
 
 /**
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
@@ -97,9 +100,19 @@ public class ShellImpl implements Shell
 
    private static final String PROP_VERBOSE = "VERBOSE";
 
-   private static final String FORGE_CONFIG_DIR = System.getProperty("user.home") + "/.forge/";
+   private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+   /**
+    * System property that overrides the directory holding the shell's config file and command history.
+    */
+   public static final String CONFIG_DIR_PROPERTY = "seam.forge.shell.configDir";
+
+   private static final String FORGE_CONFIG_DIR = System.getProperty(CONFIG_DIR_PROPERTY,
+            System.getProperty("user.home") + "/.forge/");
    private static final String FORGE_COMMAND_HISTORY_FILE = "cmd_history";
    private static final String FORGE_CONFIG_FILE = "config";
+   private static final int HISTORY_SIZE = Integer.getInteger("seam.forge.shell.historySize",
+            MemoryHistory.DEFAULT_MAX_SIZE);
 
    private final Map<String, Object> properties = new HashMap<String, Object>();
 
@@ -127,14 +140,21 @@ public class ShellImpl implements Shell
    private Completer completer;
 
    private boolean pretend = false;
+   private boolean interactive = true;
    private boolean exitRequested = false;
 
    private InputStream inputStream;
    private Writer outputWriter;
 
-   private OutputStream historyOutstream;
+   private HistoryStore historyStore;
+
+   /*
+    * Color escapes are only rendered, and output only flushed line by line, when writing to a terminal.
+    */
+   private final boolean terminal = System.console() != null;
+   private final boolean colorEnabled = terminal && Boolean.getBoolean("seam.forge.shell.colorEnabled");
 
-   private final boolean colorEnabled = Boolean.getBoolean("seam.forge.shell.colorEnabled");
+   private final ShellOutputBuffer outputBuffer = new ShellOutputBuffer(new OutputStreamWriter(System.out), terminal);
 
    private final ConversionHandler resourceConversionHandler = new ConversionHandler()
    {
@@ -220,58 +240,6 @@ public class ShellImpl implements Shell
          }
       }
 
-      File historyFile = new File(configDir.getPath() + "/" + FORGE_COMMAND_HISTORY_FILE);
-
-      try
-      {
-         if (!historyFile.exists())
-         {
-            if (!historyFile.createNewFile())
-            {
-               System.err.println("could not create config file: " + historyFile.getAbsolutePath());
-            }
-
-         }
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException("could not create config file: " + historyFile.getAbsolutePath());
-      }
-
-      MemoryHistory history = new MemoryHistory();
-      try
-      {
-         StringAppender buf = new StringAppender();
-         InputStream instream = new BufferedInputStream(new FileInputStream(historyFile));
-
-         byte[] b = new byte[25];
-         int read;
-
-         while ((read = instream.read(b)) != -1)
-         {
-            for (int i = 0; i < read; i++)
-            {
-               if (b[i] == '\n')
-               {
-                  history.add(buf.toString());
-                  buf.reset();
-               }
-               else
-               {
-                  buf.append(b[i]);
-               }
-            }
-         }
-
-         instream.close();
-
-         reader.setHistory(history);
-      }
-      catch (IOException e)
-      {
-         throw new RuntimeException("error loading file: " + historyFile.getAbsolutePath());
-      }
-
       File configFile = new File(configDir.getPath() + "/" + FORGE_CONFIG_FILE);
 
       if (!configFile.exists())
@@ -296,7 +264,7 @@ public class ShellImpl implements Shell
          catch (IOException e)
          {
             e.printStackTrace();
-            throw new RuntimeException("error loading file: " + historyFile.getAbsolutePath());
+            throw new RuntimeException("error loading file: " + configFile.getAbsolutePath());
          }
       }
 
@@ -310,46 +278,67 @@ public class ShellImpl implements Shell
       catch (IOException e)
       {
          e.printStackTrace();
-         throw new RuntimeException("error loading file: " + historyFile.getAbsolutePath());
+         throw new RuntimeException("error loading file: " + configFile.getAbsolutePath());
       }
+   }
+
+   /**
+    * Load the command history. Only interactive sessions read or record history, so that scripts run in parallel
+    * never contend for the history file.
+    */
+   private void loadHistory()
+   {
+      File configDir = new File(FORGE_CONFIG_DIR);
+      File historyFile = new File(configDir.getPath() + "/" + FORGE_COMMAND_HISTORY_FILE);
 
       try
       {
-         historyOutstream = new BufferedOutputStream(new FileOutputStream(historyFile, true));
-
-         Runtime.getRuntime().addShutdownHook(new Thread()
+         if (!historyFile.exists())
          {
-            @Override
-            public void run()
+            if (!historyFile.createNewFile())
             {
-               try
-               {
-                  historyOutstream.flush();
-                  historyOutstream.close();
-               }
-               catch (Exception e)
-               {
-               }
+               System.err.println("could not create config file: " + historyFile.getAbsolutePath());
             }
-         });
+
+         }
       }
       catch (IOException e)
       {
+         throw new RuntimeException("could not create config file: " + historyFile.getAbsolutePath());
       }
-   }
 
-   private void writeToHistory(final String command)
-   {
+      historyStore = new HistoryStore(historyFile, HISTORY_SIZE);
+      MemoryHistory history = new MemoryHistory();
+      history.setMaxSize(HISTORY_SIZE);
       try
       {
-         for (int i = 0; i < command.length(); i++)
+         for (String command : historyStore.open())
          {
-            historyOutstream.write(command.charAt(i));
+            history.add(command);
          }
-         historyOutstream.write('\n');
+
+         reader.setHistory(history);
       }
       catch (IOException e)
       {
+         throw new RuntimeException("error loading file: " + historyFile.getAbsolutePath());
+      }
+
+      Runtime.getRuntime().addShutdownHook(new Thread()
+      {
+         @Override
+         public void run()
+         {
+            historyStore.close();
+         }
+      });
+   }
+
+   private void writeToHistory(final String command)
+   {
+      if (historyStore != null)
+      {
+         historyStore.add(command);
       }
    }
 
@@ -427,6 +416,11 @@ public class ShellImpl implements Shell
 
    void doShell(@Observes final AcceptUserInput event)
    {
+      if ((historyStore == null) && interactive)
+      {
+         loadHistory();
+      }
+
       String line = "";
       reader.setPrompt(getPrompt());
       while ((exitRequested != true))
@@ -435,15 +429,18 @@ public class ShellImpl implements Shell
          {
             line = readLine();
 
-            if (line != null)
+            if (line == null)
             {
-               if (!"".equals(line.trim()))
-               {
-                  writeToHistory(line);
-                  execute(line);
-               }
-               reader.setPrompt(getPrompt());
+               // end of input
+               break;
+            }
+
+            if (!"".equals(line.trim()))
+            {
+               writeToHistory(line);
+               execute(line);
             }
+            reader.setPrompt(getPrompt());
          }
          catch (Exception e)
          {
@@ -451,6 +448,7 @@ public class ShellImpl implements Shell
          }
       }
       println();
+      flush();
    }
 
    private void handleException(final Exception original)
@@ -464,7 +462,7 @@ public class ShellImpl implements Shell
          println("[" + e.getCommand() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (CommandParserException e)
@@ -472,7 +470,7 @@ public class ShellImpl implements Shell
          println("[" + e.getCommand() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (PluginExecutionException e)
@@ -480,7 +478,7 @@ public class ShellImpl implements Shell
          println("[" + e.getPlugin() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (ShellExecutionException e)
@@ -488,7 +486,7 @@ public class ShellImpl implements Shell
          println(e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (Exception e)
@@ -500,20 +498,32 @@ public class ShellImpl implements Shell
          else
          {
             println("Exception encountered: (type \"verbose false\" to disable stack traces)");
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
    }
 
+   /**
+    * Print the stack trace of the given exception to {@link System#err}, after any output still buffered for
+    * {@link System#out}, so that the two appear in the order they were written.
+    */
+   private void printStackTrace(final Throwable e)
+   {
+      flush();
+      e.printStackTrace();
+   }
+
    @Override
    public String readLine() throws IOException
    {
+      flush();
       return reader.readLine();
    }
 
    @Override
    public int scan()
    {
+      flush();
       try
       {
          return reader.readVirtualKey();
@@ -546,7 +556,7 @@ public class ShellImpl implements Shell
          println("[" + e.getCommand() + "]" + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (CommandExecutionException e)
@@ -554,7 +564,7 @@ public class ShellImpl implements Shell
          println("[" + e.getCommand() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (CommandParserException e)
@@ -562,7 +572,7 @@ public class ShellImpl implements Shell
          println("[" + e.getCommand() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (PluginExecutionException e)
@@ -570,7 +580,7 @@ public class ShellImpl implements Shell
          println("[" + e.getPlugin() + "] " + e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (ShellExecutionException e)
@@ -578,7 +588,7 @@ public class ShellImpl implements Shell
          println(e.getMessage());
          if (isVerbose())
          {
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
       catch (Exception e)
@@ -590,36 +600,63 @@ public class ShellImpl implements Shell
          else
          {
             println("Exception encountered: (type \"verbose false\" to disable stack traces)");
-            e.printStackTrace();
+            printStackTrace(e);
          }
       }
+      finally
+      {
+         flush();
+      }
    }
 
    @Override
    public void execute(final File file) throws IOException
    {
-      StringBuilder buf = new StringBuilder();
-      InputStream instream = new BufferedInputStream(new FileInputStream(file));
+      execute(readScript(file));
+   }
+
+   /**
+    * Execute the given script file without prompting for input, as in headless batch mode. Errors are reported as they
+    * would be on the command line.
+    * 
+    * @return true if the script completed without error
+    */
+   public boolean executeScript(final File file)
+   {
       try
       {
-         byte[] b = new byte[25];
+         fshRuntime.run(readScript(file));
+         return true;
+      }
+      catch (Exception e)
+      {
+         handleException(e);
+         return false;
+      }
+      finally
+      {
+         flush();
+      }
+   }
+
+   private static String readScript(final File file) throws IOException
+   {
+      Reader reader = new InputStreamReader(new FileInputStream(file), "ISO-8859-1");
+      try
+      {
+         StringBuilder buf = new StringBuilder((int) file.length());
+         char[] b = new char[8192];
          int read;
 
-         while ((read = instream.read(b)) != -1)
+         while ((read = reader.read(b)) != -1)
          {
-            for (int i = 0; i < read; i++)
-            {
-               buf.append((char) b[i]);
-            }
+            buf.append(b, 0, read);
          }
-
-         instream.close();
-
-         execute(buf.toString());
+         return buf.toString();
       }
       finally
       {
-         instream.close();
+         reader.close();
       }
    }
 
@@ -656,20 +693,9 @@ public class ShellImpl implements Shell
          }
       }
 
-      InputStream instream = new BufferedInputStream(new FileInputStream(file));
       try
       {
-         byte[] b = new byte[25];
-         int read;
-
-         while ((read = instream.read(b)) != -1)
-         {
-            for (int i = 0; i < read; i++)
-            {
-               buf.append((char) b[i]);
-            }
-         }
-
+         buf.append(readScript(file));
          buf.append("\n}; \n@").append(funcName).append('(');
 
          if (args != null)
@@ -693,7 +719,6 @@ public class ShellImpl implements Shell
       finally
       {
          properties.remove(funcName);
-         instream.close();
       }
    }
 
@@ -705,26 +730,28 @@ public class ShellImpl implements Shell
    {
       if (isVerbose())
       {
-         System.out.println(line);
+         println(line);
       }
    }
 
    @Override
    public void print(final String output)
    {
-      System.out.print(output);
+      String s = String.valueOf(output);
+      outputBuffer.write(s, 0, s.length());
    }
 
    @Override
    public void println(final String output)
    {
-      System.out.println(output);
+      print(output);
+      println();
    }
 
    @Override
    public void println()
    {
-      System.out.println();
+      outputBuffer.write(LINE_SEPARATOR, 0, LINE_SEPARATOR.length());
    }
 
    @Override
@@ -795,7 +822,25 @@ public class ShellImpl implements Shell
    @Override
    public void write(final byte b)
    {
-      System.out.print((char) b);
+      outputBuffer.write((char) b);
+   }
+
+   @Override
+   public void write(final char[] b, final int off, final int len)
+   {
+      outputBuffer.write(b, off, len);
+   }
+
+   @Override
+   public void write(final CharSequence s, final int off, final int len)
+   {
+      outputBuffer.write(s, off, len);
+   }
+
+   @Override
+   public void flush()
+   {
+      outputBuffer.flush();
    }
 
    @Override
@@ -823,6 +868,20 @@ public class ShellImpl implements Shell
       return pretend;
    }
 
+   @Override
+   public boolean isInteractive()
+   {
+      return interactive;
+   }
+
+   /**
+    * Toggle interactive mode. See {@link #isInteractive()}.
+    */
+   public void setInteractive(final boolean interactive)
+   {
+      this.interactive = interactive;
+   }
+
    @Override
    public void setInputStream(final InputStream is) throws IOException
    {
@@ -933,10 +992,16 @@ public class ShellImpl implements Shell
 
    public String promptAndSwallowCR()
    {
+      checkInteractive("");
+
       int c;
       StringBuilder buf = new StringBuilder();
       while (((c = scan()) != '\n') && (c != '\r'))
       {
+         if (c == -1)
+         {
+            throw new ShellExecutionException("End of input reached while waiting for a response");
+         }
          if (c == 127)
          {
             if (buf.length() > 0)
@@ -963,6 +1028,8 @@ public class ShellImpl implements Shell
 
    private String promptWithCompleter(String message, final Completer tempCompleter)
    {
+      checkInteractive(message);
+
       if (!message.isEmpty() && message.matches("^.*\\S$"))
       {
          message = message + " ";
@@ -985,6 +1052,11 @@ public class ShellImpl implements Shell
          reader.addCompleter(this.completer);
          reader.setHistoryEnabled(true);
          reader.setPrompt("");
+
+         if (line == null)
+         {
+            throw new ShellExecutionException("End of input reached while waiting for a response to: " + message.trim());
+         }
          return line;
       }
       catch (IOException e)
@@ -993,6 +1065,14 @@ public class ShellImpl implements Shell
       }
    }
 
+   private void checkInteractive(final String message)
+   {
+      if (!interactive)
+      {
+         throw new ShellExecutionException("Cannot prompt for input in non-interactive mode: " + message.trim());
+      }
+   }
+
    @Override
    public String promptRegex(final String message, final String regex)
    {
@@ -0,0 +1,132 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.command;
+
+import java.lang.reflect.Method;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.jboss.seam.forge.shell.exceptions.CommandExecutionException;
+import org.jboss.seam.forge.shell.plugins.Plugin;
+import org.mvel2.DataConversion;
+import org.mvel2.util.ParseTools;
+
+/**
+ * Everything needed to invoke a command that does not change between invocations: the resolved plugin {@link Bean},
+ * the command {@link Method}, and the target type of each parameter. A binding is created the first time its command
+ * is executed, and then kept by the {@link CommandMetadata}.
+ */
+public class CommandBinding
+{
+   private final CommandMetadata command;
+   private final Bean<?> bean;
+   private final Class<? extends Plugin> pluginType;
+   private final Method method;
+   private final Class<?>[] parameterTypes;
+   private final Class<?>[] boxedParameterTypes;
+   private final boolean[] booleanParameters;
+
+   public CommandBinding(final BeanManager manager, final CommandMetadata command)
+   {
+      this.command = command;
+      this.pluginType = command.getPluginMetadata().getType();
+      this.bean = manager.resolve(manager.getBeans(pluginType));
+      this.method = command.getMethod();
+
+      try
+      {
+         // skip the access check on every invocation
+         method.setAccessible(true);
+      }
+      catch (SecurityException e)
+      {
+         // invoke with access checks, then
+      }
+
+      parameterTypes = method.getParameterTypes();
+      boxedParameterTypes = new Class<?>[parameterTypes.length];
+      booleanParameters = new boolean[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++)
+      {
+         boxedParameterTypes[i] = ParseTools.boxPrimitive(parameterTypes[i]);
+         booleanParameters[i] = ParseTools.unboxPrimitive(parameterTypes[i]) == boolean.class;
+      }
+   }
+
+   /**
+    * Convert the given parsed parameter values to the types expected by the command method.
+    */
+   public Object[] convert(final Object[] parameters)
+   {
+      Object[] result = new Object[parameters.length];
+      for (int i = 0; i < parameterTypes.length; i++)
+      {
+         Object value = parameters[i];
+         try
+         {
+            if ((value != null) && !boxedParameterTypes[i].isInstance(value))
+            {
+               value = DataConversion.convert(value, parameterTypes[i]);
+            }
+         }
+         catch (Exception e)
+         {
+            throw new CommandExecutionException(command, "command option '"
+                     + command.getOptionByAbsoluteIndex(i).getDescription()
+                     + "' must be of type '" + parameterTypes[i].getSimpleName() + "'", e);
+         }
+
+         if ((value == null) && booleanParameters[i])
+         {
+            value = false;
+         }
+         result[i] = value;
+      }
+      return result;
+   }
+
+   /**
+    * Invoke the command on a contextual instance of its plugin, using the given converted parameters.
+    */
+   public void invoke(final BeanManager manager, final Object[] parameters)
+   {
+      if (bean != null)
+      {
+         CreationalContext<?> context = manager.createCreationalContext(bean);
+         if (context != null)
+         {
+            Object plugin = manager.getReference(bean, pluginType, context);
+
+            try
+            {
+               method.invoke(plugin, parameters);
+            }
+            catch (Exception e)
+            {
+               throw new CommandExecutionException(command, e);
+            }
+         }
+      }
+   }
+}
@@ -50,6 +50,8 @@ public class CommandMetadata
 
    private Set<Class<? extends Resource>> resourceScopes = Collections.emptySet();
 
+   private volatile CommandBinding binding;
+
    public OptionMetadata getNamedOption(final String name) throws IllegalArgumentException
    {
       for (OptionMetadata option : options)
@@ -107,6 +109,19 @@ public class CommandMetadata
       this.method = method;
    }
 
+   /**
+    * Return the {@link CommandBinding} used to invoke this command, or null if the command has not yet been executed.
+    */
+   public CommandBinding getBinding()
+   {
+      return binding;
+   }
+
+   public void setBinding(final CommandBinding binding)
+   {
+      this.binding = binding;
+   }
+
    public Method getPipeInMethod()
    {
       return pipeInMethod;
@@ -22,11 +22,10 @@
 
 package org.jboss.seam.forge.shell.command;
 
-import java.lang.reflect.Method;
-import java.util.Set;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
-import javax.enterprise.context.spi.CreationalContext;
-import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
 
@@ -36,9 +35,7 @@ import org.jboss.seam.forge.shell.constraint.ConstraintException;
 import org.jboss.seam.forge.shell.exceptions.CommandExecutionException;
 import org.jboss.seam.forge.shell.exceptions.NoSuchCommandException;
 import org.jboss.seam.forge.shell.plugins.PipeOut;
-import org.jboss.seam.forge.shell.plugins.Plugin;
-import org.mvel2.DataConversion;
-import org.mvel2.util.ParseTools;
+import org.jboss.seam.forge.shell.util.PipeBuffer;
 
 /**
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
@@ -75,58 +72,18 @@ public class Execution
       }
    }
 
-   @SuppressWarnings("unchecked")
    public void perform(PipeOut pipeOut)
    {
       if (command != null)
       {
-         Class<? extends Plugin> pluginType = command.getPluginMetadata().getType();
-
-         Set<Bean<?>> beans = manager.getBeans(pluginType);
-         Bean<?> bean = manager.resolve(beans);
-
-         Method method = command.getMethod();
-
-         Class<?>[] parmTypes = method.getParameterTypes();
-         Object[] paramStaging = new Object[parameterArray.length];
-
-         for (int i = 0; i < parmTypes.length; i++)
+         CommandBinding binding = command.getBinding();
+         if (binding == null)
          {
-            try
-            {
-               paramStaging[i] = DataConversion.convert(parameterArray[i], parmTypes[i]);
-               if (isBooleanOption(parmTypes[i]) && (null == paramStaging[i]))
-               {
-                  paramStaging[i] = false;
-               }
-            }
-            catch (Exception e)
-            {
-               throw new CommandExecutionException(command, "command option '"
-                     + command.getOptionByAbsoluteIndex(i).getDescription()
-                     + "' must be of type '" + parmTypes[i].getSimpleName() + "'", e);
-            }
+            binding = new CommandBinding(manager, command);
+            command.setBinding(binding);
          }
 
-         Plugin plugin;
-         if (bean != null)
-         {
-            CreationalContext<? extends Plugin> context = (CreationalContext<? extends Plugin>) manager
-                  .createCreationalContext(bean);
-            if (context != null)
-            {
-               plugin = (Plugin) manager.getReference(bean, pluginType, context);
-
-               try
-               {
-                  command.getMethod().invoke(plugin, paramStaging);
-               }
-               catch (Exception e)
-               {
-                  throw new CommandExecutionException(command, e);
-               }
-            }
-         }
+         binding.invoke(manager, binding.convert(readPipeIn(parameterArray)));
       }
       else
       {
@@ -136,9 +93,46 @@ public class Execution
 
    }
 
-   private static boolean isBooleanOption(final Class<?> type)
+   /**
+    * Commands that ask for piped input as a String need all of it at once; read it here rather than while parsing, so
+    * that every stage of a pipeline can be parsed before any of them starts running.
+    */
+   private Object[] readPipeIn(final Object[] parameters)
    {
-      return ParseTools.unboxPrimitive(type) == boolean.class;
+      Object[] result = parameters;
+      for (OptionMetadata option : command.getOptions())
+      {
+         Object value = parameters[option.getIndex()];
+         if (option.isPipeIn() && (value instanceof InputStream)
+                  && !InputStream.class.isAssignableFrom(option.getBoxedType()))
+         {
+            if (result == parameters)
+            {
+               result = parameters.clone();
+            }
+            result[option.getIndex()] = readFully((InputStream) value);
+         }
+      }
+      return result;
+   }
+
+   private static String readFully(final InputStream stream)
+   {
+      try
+      {
+         ByteArrayOutputStream result = new ByteArrayOutputStream();
+         byte[] buffer = new byte[8192];
+         int read;
+         while ((read = stream.read(buffer)) != -1)
+         {
+            result.write(buffer, 0, read);
+         }
+         return new String(result.toByteArray(), PipeBuffer.CHARSET);
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("error reading piped input", e);
+      }
    }
 
    public CommandMetadata getCommand()
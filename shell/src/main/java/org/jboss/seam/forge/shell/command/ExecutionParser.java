@@ -23,7 +23,6 @@
 package org.jboss.seam.forge.shell.command;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.Queue;
@@ -44,6 +43,7 @@ import org.jboss.seam.forge.shell.command.parser.OrderedValueOptionParser;
 import org.jboss.seam.forge.shell.command.parser.OrderedValueVarargsOptionParser;
 import org.jboss.seam.forge.shell.command.parser.ParseErrorParser;
 import org.jboss.seam.forge.shell.command.parser.Tokenizer;
+import org.jboss.seam.forge.shell.exceptions.CommandParserException;
 import org.jboss.seam.forge.shell.exceptions.PluginExecutionException;
 import org.jboss.seam.forge.shell.plugins.PipeOut;
 import org.jboss.seam.forge.shell.util.GeneralUtils;
@@ -54,6 +54,13 @@ import org.mvel2.util.ParseTools;
  */
 public class ExecutionParser
 {
+   /*
+    * Option parsers hold no state of their own, so a single instance serves all commands.
+    */
+   private static final CommandParser COMMAND_PARSER = new CompositeCommandParser(new NamedBooleanOptionParser(),
+            new NamedValueOptionParser(), new NamedValueVarargsOptionParser(), new OrderedValueOptionParser(),
+            new OrderedValueVarargsOptionParser(), new ParseErrorParser());
+
    private final PluginRegistry registry;
    private final Instance<Execution> executionInstance;
    private final Tokenizer tokenizer;
@@ -77,7 +84,7 @@ public class ExecutionParser
       return parse(tokenizer.tokenize(line), null, null);
    }
 
-   public Execution parse(final Queue<String> tokens, final String pipeIn, final PipeOut pipeOut)
+   public Execution parse(final Queue<String> tokens, final InputStream pipeIn, final PipeOut pipeOut)
    {
       Execution execution = executionInstance.get();
       // execution.setOriginalStatement(line);
@@ -142,14 +149,10 @@ public class ExecutionParser
       return execution;
    }
 
-   private Object[] parseParameters(final CommandMetadata command, final Queue<String> tokens, final String pipeIn,
-            final PipeOut pipeOut)
+   private Object[] parseParameters(final CommandMetadata command, final Queue<String> tokens,
+            final InputStream pipeIn, final PipeOut pipeOut)
    {
-      CommandParser commandParser = new CompositeCommandParser(new NamedBooleanOptionParser(),
-               new NamedValueOptionParser(), new NamedValueVarargsOptionParser(), new OrderedValueOptionParser(),
-               new OrderedValueVarargsOptionParser(), new ParseErrorParser());
-
-      Map<OptionMetadata, Object> valueMap = commandParser.parse(command, tokens, new CommandParserContext())
+      Map<OptionMetadata, Object> valueMap = COMMAND_PARSER.parse(command, tokens, new CommandParserContext())
                .getValueMap();
 
       Object[] parameters = new Object[command.getOptions().size()];
@@ -168,26 +171,8 @@ public class ExecutionParser
          }
          else if (option.isPipeIn())
          {
+            // read by Execution#perform, once the upstream command is actually running
             value = pipeIn;
-
-            if (pipeIn != null)
-            {
-               if (InputStream.class.isAssignableFrom(option.getBoxedType()))
-               {
-                  value = new InputStream()
-                  {
-                     int cursor = 0;
-                     int len = pipeIn.length();
-
-                     @Override
-                     public int read() throws IOException
-                     {
-                        return cursor != len ? pipeIn.charAt(cursor++) : -1;
-                     }
-                  };
-               }
-            }
-
          }
          else
          {
@@ -201,12 +186,24 @@ public class ExecutionParser
 
             if (((value != null) && (promptType != null)) && !value.toString().matches(promptType.getPattern()))
             {
+               if (!shell.isInteractive())
+               {
+                  throw new CommandParserException(command, "could not parse [" + value + "] for option "
+                           + option.getOptionDescriptor());
+               }
+
                // make sure the current option value is OK
                shell.println("Could not parse [" + value + "]... please try again...");
                value = shell.promptCommon(optionDescriptor, promptType);
             }
             else if (option.isRequired() && (value == null) && (!option.hasDefaultValue()))
             {
+               if (!shell.isInteractive())
+               {
+                  throw new CommandParserException(command, "missing required option "
+                           + option.getOptionDescriptor());
+               }
+
                while (value == null)
                {
                   if (isBooleanOption(option))
@@ -29,6 +29,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.shell.Shell;
@@ -50,7 +52,7 @@ public class PluginMetadata
    private Set<Class<? extends Resource<?>>> resourceScopes = Collections.emptySet();
 
    private final Map<String, List<CommandMetadata>> commandMap = new HashMap<String, List<CommandMetadata>>();
-   private final Map<String, Map<Class<? extends Resource<?>>, CommandMetadata>> commandAccessCache = new HashMap<String, Map<Class<? extends Resource<?>>, CommandMetadata>>();
+   private final ConcurrentMap<String, ConcurrentMap<Class<? extends Resource<?>>, CommandMetadata>> commandAccessCache = new ConcurrentHashMap<String, ConcurrentMap<Class<? extends Resource<?>>, CommandMetadata>>();
 
    private CommandMetadata defaultCommand;
 
@@ -83,9 +85,14 @@ public class PluginMetadata
          }
       }
 
-      if (commandAccessCache.containsKey(name) && commandAccessCache.get(name).containsKey(scope))
+      ConcurrentMap<Class<? extends Resource<?>>, CommandMetadata> scopeCache = commandAccessCache.get(name);
+      if (scopeCache != null)
       {
-         return commandAccessCache.get(name).get(scope);
+         CommandMetadata cached = scopeCache.get(scope);
+         if (cached != null)
+         {
+            return cached;
+         }
       }
 
       List<CommandMetadata> cmdMetadata = commandMap.get(name);
@@ -98,6 +105,13 @@ public class PluginMetadata
       {
          if (c.usableWithResource(scope))
          {
+            if (scopeCache == null)
+            {
+               commandAccessCache.putIfAbsent(name,
+                        new ConcurrentHashMap<Class<? extends Resource<?>>, CommandMetadata>());
+               scopeCache = commandAccessCache.get(name);
+            }
+            scopeCache.put(scope, c);
             return c;
          }
       }
@@ -155,6 +169,7 @@ public class PluginMetadata
       }
 
       commandMap.get(command.getName()).add(command);
+      commandAccessCache.clear();
    }
 
    public List<CommandMetadata> getCommands()
@@ -24,18 +24,26 @@ package org.jboss.seam.forge.shell.command;
 
 import org.jboss.seam.forge.project.Facet;
 import org.jboss.seam.forge.project.PackagingType;
+import org.jboss.seam.forge.project.Project;
 import org.jboss.seam.forge.project.Resource;
+import org.jboss.seam.forge.project.events.FileModified;
+import org.jboss.seam.forge.project.packaging.PackagingChanged;
 import org.jboss.seam.forge.shell.Shell;
 import org.jboss.seam.forge.shell.plugins.Plugin;
 import org.jboss.seam.forge.shell.plugins.ResourceScope;
+import org.jboss.seam.forge.shell.plugins.events.ProjectChange;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Stores the current registry of all installed & loaded plugins.
@@ -45,8 +53,20 @@ import java.util.*;
 @Singleton
 public class PluginRegistry
 {
+   /**
+    * Marks cached lookups for which no plugin satisfied its constraints.
+    */
+   private static final PluginMetadata NO_MATCH = new PluginMetadata();
+
    private Map<String, List<PluginMetadata>> plugins;
-   private Map<String, Map<Class<?>, PluginMetadata>> accessCache;
+   private final ConcurrentMap<AccessKey, PluginMetadata> accessCache = new ConcurrentHashMap<AccessKey, PluginMetadata>();
+   private final ConcurrentMap<String, ResolutionCounter> counters = new ConcurrentHashMap<String, ResolutionCounter>();
+
+   /*
+    * The project, and its facet generation, for which the cached lookups were resolved.
+    */
+   private Project cachedProject;
+   private long cachedFacetGeneration;
 
    private final CommandLibraryExtension library;
    private final BeanManager manager;
@@ -62,7 +82,6 @@ public class PluginRegistry
    public void init()
    {
       plugins = library.getPlugins();
-      accessCache = new HashMap<String, Map<Class<?>, PluginMetadata>>();
       sanityCheck();
    }
 
@@ -79,6 +98,30 @@ public class PluginRegistry
       }
 
       plugins.get(plugin.getName()).add(plugin);
+      accessCache.clear();
+   }
+
+   /*
+    * Plugin constraints depend on the current project, its installed facets, and its packaging type, so cached lookups
+    * must be discarded when any of these changes. Facet changes are detected on lookup; the packaging type changes
+    * either through the packaging facet or by editing the POM.
+    */
+   void invalidate(@Observes final ProjectChange event)
+   {
+      accessCache.clear();
+   }
+
+   void invalidate(@Observes final PackagingChanged event)
+   {
+      accessCache.clear();
+   }
+
+   void invalidate(@Observes final FileModified event)
+   {
+      if ("pom.xml".equals(event.getFile().getName()))
+      {
+         accessCache.clear();
+      }
    }
 
    @Override
@@ -125,11 +168,7 @@ public class PluginRegistry
     */
    public PluginMetadata getPluginMetadataForScopeAndConstraints(final String name, final Shell shell)
    {
-      Class<? extends Resource<?>> scope = shell.getCurrentResourceScope();
-      if (accessCache.containsKey(name) && accessCache.get(name).containsKey(scope))
-      {
-         return accessCache.get(name).get(scope);
-      }
+      long start = System.nanoTime();
 
       List<PluginMetadata> pluginMetadataList = plugins.get(name);
       if (pluginMetadataList == null)
@@ -137,17 +176,61 @@ public class PluginRegistry
          return null;
       }
 
-      PluginMetadata pmd = null;
-      for (PluginMetadata p : pluginMetadataList)
+      validateCache(shell.getCurrentProject());
+      AccessKey key = new AccessKey(name, shell.getCurrentResourceScope());
+      PluginMetadata pmd = accessCache.get(key);
+      boolean hit = pmd != null;
+      if (!hit)
       {
-         if (p.constrantsSatisfied(shell))
+         pmd = NO_MATCH;
+         for (PluginMetadata p : pluginMetadataList)
          {
-            pmd = p;
-            break;
+            if (p.constrantsSatisfied(shell))
+            {
+               pmd = p;
+               break;
+            }
          }
+         accessCache.put(key, pmd);
       }
 
-      return pmd;
+      getResolutionCounter(name).record(hit, System.nanoTime() - start);
+      return pmd == NO_MATCH ? null : pmd;
+   }
+
+   /**
+    * Return the {@link ResolutionCounter} for each plugin name that has been looked up with
+    * {@link #getPluginMetadataForScopeAndConstraints(String, Shell)}.
+    */
+   public Map<String, ResolutionCounter> getResolutionCounters()
+   {
+      return Collections.unmodifiableMap(counters);
+   }
+
+   private synchronized void validateCache(final Project project)
+   {
+      long generation = project == null ? 0 : project.getFacetGeneration();
+      if ((project != cachedProject) || (generation != cachedFacetGeneration))
+      {
+         accessCache.clear();
+         cachedProject = project;
+         cachedFacetGeneration = generation;
+      }
+   }
+
+   private ResolutionCounter getResolutionCounter(final String name)
+   {
+      ResolutionCounter counter = counters.get(name);
+      if (counter == null)
+      {
+         counter = new ResolutionCounter();
+         ResolutionCounter existing = counters.putIfAbsent(name, counter);
+         if (existing != null)
+         {
+            counter = existing;
+         }
+      }
+      return counter;
    }
 
    private void sanityCheck()
@@ -177,4 +260,97 @@ public class PluginRegistry
       }
    }
 
+   /**
+    * Counts the lookups of a plugin name, and the time spent resolving them.
+    */
+   public static class ResolutionCounter
+   {
+      private final AtomicLong lookups = new AtomicLong();
+      private final AtomicLong misses = new AtomicLong();
+      private final AtomicLong nanos = new AtomicLong();
+
+      void record(final boolean hit, final long elapsed)
+      {
+         lookups.incrementAndGet();
+         if (!hit)
+         {
+            misses.incrementAndGet();
+         }
+         nanos.addAndGet(elapsed);
+      }
+
+      /**
+       * Return the number of times this plugin name was looked up.
+       */
+      public long getLookups()
+      {
+         return lookups.get();
+      }
+
+      /**
+       * Return the number of lookups that were not cached, and required plugin constraints to be evaluated.
+       */
+      public long getMisses()
+      {
+         return misses.get();
+      }
+
+      /**
+       * Return the total time, in nanoseconds, spent resolving this plugin name.
+       */
+      public long getResolutionNanos()
+      {
+         return nanos.get();
+      }
+
+      @Override
+      public String toString()
+      {
+         long count = getLookups();
+         return "lookups=" + count + ", misses=" + getMisses() + ", avg="
+                  + (count == 0 ? 0 : (getResolutionNanos() / count / 1000)) + "us";
+      }
+   }
+
+   /**
+    * Identifies a plugin lookup within the cache for the current project: the plugin name and the current resource
+    * scope.
+    */
+   private static final class AccessKey
+   {
+      private final String name;
+      private final Class<?> scope;
+
+      AccessKey(final String name, final Class<?> scope)
+      {
+         this.name = name;
+         this.scope = scope;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         final int prime = 31;
+         int result = 1;
+         result = prime * result + name.hashCode();
+         result = prime * result + ((scope == null) ? 0 : scope.hashCode());
+         return result;
+      }
+
+      @Override
+      public boolean equals(final Object obj)
+      {
+         if (this == obj)
+         {
+            return true;
+         }
+         if (!(obj instanceof AccessKey))
+         {
+            return false;
+         }
+         AccessKey other = (AccessKey) obj;
+         return name.equals(other.name)
+                  && ((scope == null) ? other.scope == null : scope.equals(other.scope));
+      }
+   }
 }
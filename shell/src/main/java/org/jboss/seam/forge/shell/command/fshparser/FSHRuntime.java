@@ -27,13 +27,24 @@ import org.jboss.seam.forge.shell.command.Execution;
 import org.jboss.seam.forge.shell.command.ExecutionParser;
 import org.jboss.seam.forge.shell.command.PluginRegistry;
 import org.jboss.seam.forge.shell.plugins.PipeOut;
+import org.jboss.seam.forge.shell.util.PipeBuffer;
 import org.jboss.seam.forge.shell.util.PipeOutImpl;
 
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * @author Mike Brock .
@@ -46,6 +57,24 @@ public class FSHRuntime
    private final Instance<Execution> executionInstance;
    private final ExecutionParser executionParser;
 
+   private ExecutorService pipeExecutor;
+
+   private static final int SCRIPT_CACHE_SIZE = 512;
+
+   /**
+    * Parsed scripts, by source text. Parsed nodes are never modified once built, so they may be run any number of
+    * times; this also keeps the MVEL expressions compiled by their {@link ScriptNode}s.
+    */
+   @SuppressWarnings("serial")
+   private final Map<String, Node> scriptCache = new LinkedHashMap<String, Node>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Node> eldest)
+      {
+         return size() > SCRIPT_CACHE_SIZE;
+      }
+   };
+
    @Inject
    public FSHRuntime(Shell shell, PluginRegistry pluginRegistry,
                      Instance<Execution> executionInstance,
@@ -59,72 +88,240 @@ public class FSHRuntime
 
    public void run(final String str)
    {
-      run(new FSHParser(str).parse(), null);
+      run(parse(str), null);
+   }
+
+   /**
+    * Parse the given script, or return the previously parsed {@link Node} tree for the same script.
+    */
+   public Node parse(final String str)
+   {
+      Node node;
+      synchronized (scriptCache)
+      {
+         node = scriptCache.get(str);
+      }
+
+      if (node == null)
+      {
+         node = new FSHParser(str).parse();
+         synchronized (scriptCache)
+         {
+            scriptCache.put(str, node);
+         }
+      }
+      return node;
    }
 
-   public void run(final Node startNode, final PipeOut forwardPipe)
+   public void run(final Node startNode, final InputStream pipeIn)
    {
-      AutoReducingQueue arQueue;
       Node n = startNode;
-      PipeOut lastPipe = null;
 
       do
       {
-         if (n instanceof LogicalStatement)
+         if (!(n instanceof LogicalStatement))
          {
-            arQueue = new AutoReducingQueue(((LogicalStatement) n).getNest(), this);
+            throw new RuntimeException("badly formed stack:" + n);
          }
-         else if (n instanceof PipeNode)
+
+         Queue<String> outQueue = reduce((LogicalStatement) n);
+         PipeNode pipeNode = n.next instanceof PipeNode ? (PipeNode) n.next : null;
+
+         if (pipeNode == null)
          {
-            if (lastPipe == null)
+            if (!outQueue.isEmpty())
             {
-               throw new RuntimeException("broken pipe");
+               PipeOut pipeOut = new PipeOutImpl(shell);
+               Execution execution = executionParser.parse(outQueue, pipeIn, pipeOut);
+               execution.verifyConstraints(shell);
+               execution.perform(pipeOut);
             }
+         }
+         else
+         {
+            List<Queue<String>> stages = new ArrayList<Queue<String>>();
+            stages.add(outQueue);
 
-            run(((PipeNode) n).getNest(), lastPipe);
+            Node stage = pipeNode.getNest();
+            while (stage != null)
+            {
+               if (!(stage instanceof LogicalStatement))
+               {
+                  throw new RuntimeException("badly formed stack:" + stage);
+               }
+               stages.add(reduce((LogicalStatement) stage));
+               stage = stage.next instanceof PipeNode ? ((PipeNode) stage.next).getNest() : null;
+            }
+
+            runPipeline(stages, pipeIn);
+            n = pipeNode;
+         }
+      }
+      while ((n = n.next) != null);
+   }
+
+   private Queue<String> reduce(final LogicalStatement statement)
+   {
+      Queue<String> outQueue = new LinkedList<String>();
+      for (String s : new AutoReducingQueue(statement.getNest(), this))
+      {
+         if (s == null || s.equals(""))
+         {
             continue;
          }
+         outQueue.add(s);
+      }
+      return outQueue;
+   }
+
+   /**
+    * Run the given pipeline, streaming the output of each command into the next through a bounded {@link PipeBuffer}.
+    * Every command is parsed (and may prompt for missing options) on the calling thread before any of them starts;
+    * all but the last command then run concurrently on pipe threads, and the last runs on the calling thread. Returns
+    * once every command has completed.
+    */
+   private void runPipeline(final List<Queue<String>> stages, final InputStream pipeIn)
+   {
+      for (Queue<String> tokens : stages)
+      {
+         if (tokens.isEmpty())
+         {
+            throw new RuntimeException("broken pipe");
+         }
+      }
+
+      final int last = stages.size() - 1;
+      final PipeBuffer[] pipes = new PipeBuffer[last];
+      final PipeOut[] pipeOuts = new PipeOut[stages.size()];
+      final Execution[] executions = new Execution[stages.size()];
+
+      for (int i = 0; i <= last; i++)
+      {
+         InputStream in = i == 0 ? pipeIn : pipes[i - 1].getInputStream();
+         if (i < last)
+         {
+            pipes[i] = new PipeBuffer();
+            pipeOuts[i] = new PipeOutImpl(shell, pipes[i]);
+         }
          else
          {
-            throw new RuntimeException("badly formed stack:" + n);
+            pipeOuts[i] = new PipeOutImpl(shell);
          }
 
-         Queue<String> outQueue = new LinkedList<String>();
-         for (String s : arQueue)
+         executions[i] = executionParser.parse(stages.get(i), in, pipeOuts[i]);
+         executions[i].verifyConstraints(shell);
+      }
+
+      List<Future<?>> upstream = new ArrayList<Future<?>>(last);
+      for (int i = 0; i < last; i++)
+      {
+         final int stage = i;
+         upstream.add(getPipeExecutor().submit(new Runnable()
          {
-            if (s == null || s.equals(""))
+            @Override
+            public void run()
             {
-               continue;
+               try
+               {
+                  executions[stage].perform(pipeOuts[stage]);
+               }
+               finally
+               {
+                  pipes[stage].closeWrite();
+                  if (stage > 0)
+                  {
+                     // unblock the command before this one if this one stopped reading early
+                     pipes[stage - 1].closeRead();
+                  }
+               }
             }
-            outQueue.add(s);
-         }
+         }));
+      }
 
-         if (!outQueue.isEmpty())
-         {
-            PipeOut pipeOut = new PipeOutImpl(shell);
+      boolean completed = false;
+      try
+      {
+         executions[last].perform(pipeOuts[last]);
+         completed = true;
+      }
+      finally
+      {
+         pipes[last - 1].closeRead();
 
-            if (n.next != null && n.next instanceof PipeNode)
+         // the failure nearest the end of the pipeline takes precedence
+         RuntimeException failure = null;
+         for (int i = last - 1; i >= 0; i--)
+         {
+            try
             {
-               pipeOut.setPiped(true);
-               lastPipe = pipeOut;
+               awaitUpstream(upstream.get(i), completed && (failure == null));
             }
-
-            Node x = n;
-            while (x instanceof LogicalStatement && (x = ((LogicalStatement) x).nest) != null)
+            catch (RuntimeException e)
             {
-               if (x instanceof ScriptNode || x.next != null)
-               {
-                  break;
-               }
+               failure = e;
             }
+         }
+         if (failure != null)
+         {
+            throw failure;
+         }
+      }
+   }
 
-            String pipeIn = forwardPipe != null ? forwardPipe.getBuffer() : null;
-            Execution execution = executionParser.parse(outQueue, pipeIn, pipeOut);
-            execution.verifyConstraints(shell);
-            execution.perform(forwardPipe);
+   /**
+    * Wait for the given upstream command to finish, and re-throw its failure, unless the downstream command already
+    * failed (in which case that failure takes precedence.)
+    */
+   private void awaitUpstream(final Future<?> upstream, final boolean rethrow)
+   {
+      try
+      {
+         upstream.get();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         upstream.cancel(true);
+         if (rethrow)
+         {
+            throw new RuntimeException("interrupted while waiting for piped command", e);
          }
       }
-      while ((n = n.next) != null);
+      catch (ExecutionException e)
+      {
+         if (rethrow)
+         {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+            {
+               throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error)
+            {
+               throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+         }
+      }
+   }
+
+   private synchronized ExecutorService getPipeExecutor()
+   {
+      if (pipeExecutor == null)
+      {
+         // unbounded, since every stage of a pipeline must be able to run at the same time
+         pipeExecutor = Executors.newCachedThreadPool(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-pipe");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return pipeExecutor;
    }
 
    public void shell(String command)
@@ -24,6 +24,7 @@ package org.jboss.seam.forge.shell.command.fshparser;
 
 import org.mvel2.MVEL;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Queue;
@@ -127,6 +128,32 @@ public abstract class Parse
       return build.toString();
    }
 
+   /**
+    * Return true if the given chain of nodes always reduces to the same text, i.e. it does not contain any scripts.
+    */
+   public static boolean isConstant(Node n)
+   {
+      for (; n != null; n = n.getNext())
+      {
+         if (n instanceof ScriptNode)
+         {
+            return false;
+         }
+         else if (n instanceof LogicalStatement)
+         {
+            if (!isConstant(((LogicalStatement) n).getNest()))
+            {
+               return false;
+            }
+         }
+         else if (!(n instanceof TokenNode))
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
    public static String queueToString(Queue<String> tokens)
    {
       StringBuilder sb = new StringBuilder();
@@ -146,11 +173,34 @@ public abstract class Parse
 
    public static String executeScript(ScriptNode node, final FSHRuntime runtime)
    {
-      String toExec = queueToString(new AutoReducingQueue(node.getNest(), runtime));
+      Object r;
+      Serializable compiled = node.getCompiledScript();
+      if (compiled != null)
+      {
+         r = MVEL.executeExpression(compiled, runtime, runtime.getShell().getProperties());
+      }
+      else
+      {
+         String toExec = queueToString(new AutoReducingQueue(node.getNest(), runtime));
+
+         // System.out.println("\n----\n" + toExec + "\n========\n");
 
-     // System.out.println("\n----\n" + toExec + "\n========\n");
+         if (isConstant(node.getNest()))
+         {
+            /*
+             * the source of this script will never change, so compile it once and re-use it every time this node is
+             * run (e.g: on every iteration of a loop, or every time a cached script is run again)
+             */
+            compiled = MVEL.compileExpression(toExec);
+            node.setCompiledScript(compiled);
+            r = MVEL.executeExpression(compiled, runtime, runtime.getShell().getProperties());
+         }
+         else
+         {
+            r = MVEL.eval(toExec, runtime, runtime.getShell().getProperties());
+         }
+      }
 
-      Object r = MVEL.eval(toExec, runtime, runtime.getShell().getProperties());
       if (r == null)
       {
          return null;
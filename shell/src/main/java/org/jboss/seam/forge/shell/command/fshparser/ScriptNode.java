@@ -22,6 +22,8 @@
 
 package org.jboss.seam.forge.shell.command.fshparser;
 
+import java.io.Serializable;
+
 /**
  * @author Mike Brock .
  */
@@ -29,6 +31,8 @@ public class ScriptNode extends LogicalStatement
 {
    private boolean nocommand = false;
 
+   private volatile Serializable compiledScript;
+
    public ScriptNode(Node nest, boolean nocommand)
    {
       super(nest);
@@ -39,4 +43,18 @@ public class ScriptNode extends LogicalStatement
    {
       return nocommand;
    }
+
+   /**
+    * Return the compiled MVEL expression for this script, or null if it has not been compiled. Only scripts whose
+    * source does not depend on other scripts are compiled.
+    */
+   public Serializable getCompiledScript()
+   {
+      return compiledScript;
+   }
+
+   public void setCompiledScript(Serializable compiledScript)
+   {
+      this.compiledScript = compiledScript;
+   }
 }
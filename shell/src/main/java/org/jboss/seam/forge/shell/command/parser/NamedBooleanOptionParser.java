@@ -26,6 +26,7 @@ import org.jboss.seam.forge.shell.command.CommandMetadata;
 import org.jboss.seam.forge.shell.command.OptionMetadata;
 
 import java.util.Queue;
+import java.util.regex.Pattern;
 
 /**
  * Parses named boolean options such as:
@@ -37,12 +38,15 @@ import java.util.Queue;
  */
 public class NamedBooleanOptionParser implements CommandParser
 {
+   private static final Pattern OPTION_PATTERN = Pattern.compile("--?\\S+");
+   private static final Pattern BOOLEAN_PATTERN = Pattern.compile("true|false");
+
    @Override
    public CommandParserContext parse(final CommandMetadata command, final Queue<String> tokens,
                                      final CommandParserContext ctx)
    {
       String currentToken = tokens.peek();
-      if (currentToken.matches("--?\\S+"))
+      if (OPTION_PATTERN.matcher(currentToken).matches())
       {
          if ((currentToken.length() > 1) && (currentToken.charAt(1) != '-'))
          {
@@ -90,7 +94,7 @@ public class NamedBooleanOptionParser implements CommandParser
                tokens.remove();
             }
             String nextToken = tokens.peek();
-            if (!option.isFlagOnly() && (nextToken != null) && nextToken.matches("true|false"))
+            if (!option.isFlagOnly() && (nextToken != null) && BOOLEAN_PATTERN.matcher(nextToken).matches())
             {
                value = nextToken;
                tokens.remove();
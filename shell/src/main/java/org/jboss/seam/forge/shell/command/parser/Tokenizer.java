@@ -33,12 +33,14 @@ import java.util.regex.Pattern;
  */
 public class Tokenizer
 {
+   // ----------------------------------------------------------(0-(1------)---(2---))----------
+   private static final Pattern TOKEN_PATTERN = Pattern.compile("\"([^\"]*?)\"|(\\S+)");
+
    public Queue<String> tokenize(final String line)
    {
       Queue<String> tokens = new LinkedList<String>();
 
-      // -------------------------------(0-(1------)---(2---))----------
-      Matcher matcher = Pattern.compile("\"([^\"]*?)\"|(\\S+)").matcher(line);
+      Matcher matcher = TOKEN_PATTERN.matcher(line);
       while (matcher.find())
       {
          if (matcher.group(1) != null)
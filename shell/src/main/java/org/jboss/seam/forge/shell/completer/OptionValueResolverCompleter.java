@@ -13,6 +13,7 @@ import org.jboss.seam.forge.project.ResourceFlag;
 import org.jboss.seam.forge.project.services.ResourceFactory;
 import org.jboss.seam.forge.project.util.BeanManagerUtils;
 import org.jboss.seam.forge.project.util.PathspecParser;
+import org.jboss.seam.forge.shell.PromptType;
 import org.jboss.seam.forge.shell.Shell;
 import org.jboss.seam.forge.shell.command.OptionMetadata;
 import org.jboss.seam.forge.shell.command.parser.CommandParserContext;
@@ -101,7 +102,8 @@ public class OptionValueResolverCompleter implements CommandCompleter
    private boolean isResourceAssignable(final OptionMetadata option)
    {
       return Resource[].class.isAssignableFrom(option.getBoxedType())
-               || Resource.class.isAssignableFrom(option.getBoxedType());
+               || Resource.class.isAssignableFrom(option.getBoxedType())
+               || PromptType.FILE_PATH.equals(option.getPromptType());
    }
 
 }
@@ -25,12 +25,14 @@ package org.jboss.seam.forge.shell.plugins.builtin;
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.resources.FileResource;
 import org.jboss.seam.forge.shell.plugins.*;
+import org.jboss.seam.forge.shell.util.PipeBuffer;
 
 import javax.inject.Named;
-import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 
 /**
  * @author Mike Brock .
@@ -47,10 +49,10 @@ public class ConcatenatePlugin implements Plugin
          final PipeOut out // pipe out
    ) throws IOException
    {
-      String lastBuf = null;
+      int last = -1;
       if (in != null)
       {
-         lastBuf = writeOutToConsole(in, out);
+         last = writeOutToConsole(new InputStreamReader(in, PipeBuffer.CHARSET), out, last);
       }
 
       if (paths != null)
@@ -63,8 +65,8 @@ public class ConcatenatePlugin implements Plugin
                InputStream istream = null;
                try
                {
-                  istream = new BufferedInputStream(new FileInputStream(res.getFullyQualifiedName()));
-                  lastBuf = writeOutToConsole(istream, out);
+                  istream = new FileInputStream(res.getFullyQualifiedName());
+                  last = writeOutToConsole(new InputStreamReader(istream), out, last);
                }
                catch (IOException e)
                {
@@ -81,24 +83,27 @@ public class ConcatenatePlugin implements Plugin
          }
       }
 
-      if (lastBuf == null || lastBuf.charAt(lastBuf.length() - 1) != '\n')
+      if (last != '\n')
       {
          out.println();
       }
+      out.flush();
    }
 
-   private static String writeOutToConsole(InputStream istream, PipeOut out) throws IOException
+   /**
+    * Copy the given reader to the {@link PipeOut} in large blocks, returning the last character written (or the given
+    * previous last character, if the stream was empty.)
+    */
+   private static int writeOutToConsole(Reader reader, PipeOut out, int last) throws IOException
    {
-      byte[] buf = new byte[10];
+      char[] buf = new char[8192];
       int read;
-      String s = null;
-      while ((read = istream.read(buf)) != -1)
+      while ((read = reader.read(buf)) != -1)
       {
-         out.print(s = new String(buf, 0, read));
+         out.write(buf, 0, read);
+         last = buf[read - 1];
       }
 
-      return s;
-
-
+      return last;
    }
 }
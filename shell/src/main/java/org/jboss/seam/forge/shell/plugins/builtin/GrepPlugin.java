@@ -19,20 +19,34 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
-
 package org.jboss.seam.forge.shell.plugins.builtin;
 
 import org.jboss.seam.forge.project.Resource;
+import org.jboss.seam.forge.project.ResourceQuery;
+import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
 import org.jboss.seam.forge.shell.plugins.*;
-import org.mvel2.util.StringAppender;
+import org.jboss.seam.forge.shell.util.LineMatcher;
+import org.jboss.seam.forge.shell.util.PipeBuffer;
 
 import javax.inject.Named;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.regex.Pattern;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * A simple port of the Unix grep command.
+ * <p>
+ * When more than one file is given, the files are searched in parallel, and the results printed in the order the
+ * files were given.
  *
  * @author Mike Brock .
  */
@@ -41,6 +55,10 @@ import java.util.regex.Pattern;
 @Help("print lines matching a pattern")
 public class GrepPlugin implements Plugin
 {
+   private static final int BUFFER_SIZE = 65536;
+
+   private static ExecutorService executor;
+
    @DefaultCommand
    public void run(
          @PipeIn final InputStream pipeIn,
@@ -48,19 +66,23 @@ public class GrepPlugin implements Plugin
          boolean ignoreCase,
          @Option(name = "regexp", shortName = "e", help = "match using a regular expression")
          String regExp,
+         @Option(name = "line-number", shortName = "n", help = "prefix each line of output with its line number", flagOnly = true)
+         boolean lineNumbers,
+         @Option(name = "count", shortName = "c", help = "print only a count of matching lines per file", flagOnly = true)
+         boolean count,
+         @Option(name = "files-with-matches", shortName = "l", help = "print only the names of files containing matches", flagOnly = true)
+         boolean filesOnly,
+         @Option(name = "recursive", shortName = "r", help = "search all files under each directory", flagOnly = true)
+         boolean recursive,
          @Option(description = "PATTERN") String pattern,
          @Option(description = "FILE ...") Resource<?>[] resources,
          final PipeOut pipeOut
    ) throws IOException
    {
-      Pattern matchPattern;
+      LineMatcher matcher;
       if (regExp != null)
       {
-         if (ignoreCase)
-         {
-            regExp = regExp.toLowerCase();
-         }
-         matchPattern = Pattern.compile(regExp);
+         matcher = LineMatcher.compile(regExp, ignoreCase);
       }
       else if (pattern == null)
       {
@@ -68,31 +90,77 @@ public class GrepPlugin implements Plugin
       }
       else
       {
-         if (ignoreCase)
-         {
-            pattern = pattern.toLowerCase();
-         }
-         matchPattern = Pattern.compile(".*" + pattern + ".*");
+         matcher = LineMatcher.compile(pattern, ignoreCase);
       }
 
+      final Search search = new Search(matcher, lineNumbers, count, filesOnly);
+
       if (resources != null)
       {
+         List<Resource<?>> files = new ArrayList<Resource<?>>();
          for (Resource<?> r : resources)
          {
-            InputStream inputStream = r.getResourceInputStream();
-            try
+            collectFiles(r, recursive, files);
+         }
+         final boolean prefix = recursive || (files.size() > 1);
+
+         if (files.size() == 1)
+         {
+            for (String line : search.searchResource(files.get(0), prefix, recursive))
             {
-               match(inputStream, matchPattern, pipeOut, ignoreCase);
+               pipeOut.println(line);
             }
-            finally
+            return;
+         }
+
+         List<Future<List<String>>> results = new ArrayList<Future<List<String>>>(files.size());
+         try
+         {
+            for (final Resource<?> r : files)
             {
-               inputStream.close();
+               results.add(getExecutor().submit(new Callable<List<String>>()
+               {
+                  @Override
+                  public List<String> call() throws Exception
+                  {
+                     return search.searchResource(r, prefix, recursive);
+                  }
+               }));
+            }
+
+            for (Future<List<String>> result : results)
+            {
+               for (String line : result.get())
+               {
+                  pipeOut.println(line);
+               }
+            }
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while searching files", e);
+         }
+         catch (ExecutionException e)
+         {
+            if (e.getCause() instanceof IOException)
+            {
+               throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+         }
+         finally
+         {
+            for (Future<List<String>> result : results)
+            {
+               result.cancel(true);
             }
          }
       }
       else if (pipeIn != null)
       {
-         match(pipeIn, matchPattern, pipeOut, ignoreCase);
+         search.search(new BufferedReader(new InputStreamReader(pipeIn, PipeBuffer.CHARSET), BUFFER_SIZE), "(standard input)", false,
+                  pipeOut, null);
       }
       else
       {
@@ -100,28 +168,131 @@ public class GrepPlugin implements Plugin
       }
    }
 
-   private void match(InputStream instream, Pattern pattern, PipeOut out, boolean caseInsensitive) throws IOException
+   private static void collectFiles(Resource<?> r, boolean recursive, List<Resource<?>> files)
    {
-      StringAppender buf = new StringAppender();
+      if (r instanceof DirectoryResource)
+      {
+         if (recursive)
+         {
+            for (Resource<?> child : r.listResources(ResourceQuery.create().sorted()))
+            {
+               collectFiles(child, true, files);
+            }
+         }
+         else
+         {
+            System.err.println("grep: " + r.getName() + ": is a directory.");
+         }
+      }
+      else
+      {
+         files.add(r);
+      }
+   }
+
+   private static synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-grep");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   /**
+    * Searches a single input, either printing results as they are found or collecting them to be printed later.
+    */
+   private static class Search
+   {
+      private final LineMatcher matcher;
+      private final boolean lineNumbers;
+      private final boolean count;
+      private final boolean filesOnly;
+
+      public Search(LineMatcher matcher, boolean lineNumbers, boolean count, boolean filesOnly)
+      {
+         this.matcher = matcher;
+         this.lineNumbers = lineNumbers;
+         this.count = count;
+         this.filesOnly = filesOnly;
+      }
+
+      public List<String> searchResource(Resource<?> r, boolean prefix, boolean qualified) throws IOException
+      {
+         List<String> results = new ArrayList<String>();
+         InputStream inputStream = r.getResourceInputStream();
+         try
+         {
+            search(new BufferedReader(new InputStreamReader(inputStream), BUFFER_SIZE),
+                     qualified ? r.getFullyQualifiedName() : r.getName(), prefix, null, results);
+            return results;
+         }
+         finally
+         {
+            inputStream.close();
+         }
+      }
 
-      int c;
-      while ((c = instream.read()) != -1)
+      /**
+       * Search the given reader, sending output lines directly to the given {@link PipeOut} if it is not null, or
+       * otherwise collecting them into the given list. When prefix is set, output lines start with the given name.
+       */
+      public void search(BufferedReader reader, String name, boolean prefix, PipeOut out, List<String> results)
+               throws IOException
       {
-         switch (c)
+         String linePrefix = prefix ? name + ":" : "";
+         long matches = 0;
+         long lineNumber = 0;
+
+         String line;
+         while ((line = reader.readLine()) != null)
          {
-         case '\r':
-         case '\n':
-            String s = caseInsensitive ? buf.toString().toLowerCase() : buf.toString();
+            lineNumber++;
+            if (matcher.find(line))
+            {
+               matches++;
+               if (filesOnly)
+               {
+                  break;
+               }
+               else if (!count)
+               {
+                  emit(lineNumbers ? linePrefix + lineNumber + ":" + line : linePrefix + line, out, results);
+               }
+            }
+         }
 
-            if (pattern.matcher(s).matches())
+         if (filesOnly)
+         {
+            if (matches > 0)
             {
-               out.println(s);
+               emit(name, out, results);
             }
-            buf.reset();
-            break;
-         default:
-            buf.append((char) c);
-            break;
+         }
+         else if (count)
+         {
+            emit(linePrefix + matches, out, results);
+         }
+      }
+
+      private static void emit(String line, PipeOut out, List<String> results)
+      {
+         if (out != null)
+         {
+            out.println(line);
+         }
+         else
+         {
+            results.add(line);
          }
       }
    }
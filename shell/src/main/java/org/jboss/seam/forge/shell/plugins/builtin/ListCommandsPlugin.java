@@ -37,6 +37,7 @@ import org.jboss.seam.forge.shell.Shell;
 import org.jboss.seam.forge.shell.command.CommandMetadata;
 import org.jboss.seam.forge.shell.command.PluginMetadata;
 import org.jboss.seam.forge.shell.command.PluginRegistry;
+import org.jboss.seam.forge.shell.command.PluginRegistry.ResolutionCounter;
 import org.jboss.seam.forge.shell.constraint.ConstraintEnforcer;
 import org.jboss.seam.forge.shell.plugins.DefaultCommand;
 import org.jboss.seam.forge.shell.plugins.Help;
@@ -167,6 +168,17 @@ public class ListCommandsPlugin implements Plugin
          {
             pipeOut.println("(only commands in relevant scope displayed. use --all to see all commands.)");
          }
+
+         if (shell.isVerbose())
+         {
+            pipeOut.println();
+            pipeOut.println(ShellColor.RED, "[PLUGIN RESOLUTION]");
+            for (Map.Entry<String, ResolutionCounter> entry : new TreeMap<String, ResolutionCounter>(
+                     registry.getResolutionCounters()).entrySet())
+            {
+               pipeOut.println(entry.getKey() + ": " + entry.getValue());
+            }
+         }
       }
    }
 
@@ -24,12 +24,17 @@ package org.jboss.seam.forge.shell.plugins.builtin;
 
 import static org.jboss.seam.forge.shell.util.GeneralUtils.printOutColumns;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
+import org.jboss.seam.forge.parser.JavaParser;
+import org.jboss.seam.forge.parser.ParseHandler;
 import org.jboss.seam.forge.parser.java.Field;
 import org.jboss.seam.forge.parser.java.JavaClass;
 import org.jboss.seam.forge.parser.java.JavaSource;
@@ -75,18 +80,25 @@ public class LsJavaPlugin implements Plugin
                    final PipeOut out) throws FileNotFoundException
    {
 
+      Map<File, JavaSource<?>> sources = parseAll(paths);
+
       for (Resource<?> resource : paths)
       {
          if (resource instanceof JavaResource)
          {
+            JavaResource javaResource = (JavaResource) resource;
+            JavaSource<?> javaSource = sources.get(javaResource.getUnderlyingResourceObject());
+            if (javaSource == null)
+            {
+               javaSource = javaResource.getJavaSource();
+            }
+
             if (showAll)
             {
-               out.print(JavaColorizer.format(out, ((JavaResource) resource).getJavaSource().toString()));
+               out.print(JavaColorizer.format(out, javaSource.toString()));
             }
             else
             {
-               JavaResource javaResource = (JavaResource) resource;
-               JavaSource<?> javaSource = javaResource.getJavaSource();
                List<String> output = new ArrayList<String>();
 
                if (!out.isPiped())
@@ -166,4 +178,39 @@ public class LsJavaPlugin implements Plugin
          }
       }
    }
+
+   /**
+    * Parse all {@link JavaResource}s in the given paths concurrently, if there is more than one.
+    */
+   private Map<File, JavaSource<?>> parseAll(final Resource<?>[] paths)
+   {
+      List<File> files = new ArrayList<File>();
+      for (Resource<?> resource : paths)
+      {
+         if (resource instanceof JavaResource)
+         {
+            files.add(((JavaResource) resource).getUnderlyingResourceObject());
+         }
+      }
+
+      final Map<File, JavaSource<?>> result = new HashMap<File, JavaSource<?>>();
+      if (files.size() > 1)
+      {
+         JavaParser.parse(files, new ParseHandler()
+         {
+            @Override
+            public void parsed(final File file, final JavaSource<?> source)
+            {
+               result.put(file, source);
+            }
+
+            @Override
+            public void failed(final File file, final Exception e)
+            {
+               // reported when the resource is parsed on its own
+            }
+         });
+      }
+      return result;
+   }
 }
\ No newline at end of file
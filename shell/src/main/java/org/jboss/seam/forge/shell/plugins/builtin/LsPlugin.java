@@ -24,7 +24,14 @@ package org.jboss.seam.forge.shell.plugins.builtin;
 
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.ResourceFlag;
+import org.jboss.seam.forge.project.ResourceQuery;
+import org.jboss.seam.forge.project.resources.FileAttributes;
+import org.jboss.seam.forge.project.resources.FileResource;
 import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.project.services.ResourceFactory;
+import org.jboss.seam.forge.project.util.PathspecResults;
+import org.jboss.seam.forge.project.util.ResourceUtil;
+import org.jboss.seam.forge.shell.PromptType;
 import org.jboss.seam.forge.shell.Shell;
 import org.jboss.seam.forge.shell.plugins.*;
 import org.jboss.seam.forge.shell.util.FormatCallback;
@@ -54,6 +61,7 @@ import static org.jboss.seam.forge.shell.util.GeneralUtils.printOutTables;
 public class LsPlugin implements Plugin
 {
    private final Shell shell;
+   private final ResourceFactory resourceFactory;
 
    private static final long yearMarker;
    private static final SimpleDateFormat dateFormatOld = new SimpleDateFormat("MMM d yyyy");
@@ -74,24 +82,30 @@ public class LsPlugin implements Plugin
    }
 
    @Inject
-   public LsPlugin(final Shell shell)
+   public LsPlugin(final Shell shell, final ResourceFactory resourceFactory)
    {
       this.shell = shell;
+      this.resourceFactory = resourceFactory;
    }
 
    @DefaultCommand
    public void run(@Option(flagOnly = true, name = "all", shortName = "a", required = false) final boolean showAll,
                    @Option(flagOnly = true, name = "list", shortName = "l", required = false) final boolean list,
-                   @Option(description = "path", defaultValue = ".") Resource<?>[] paths,
+                   @Option(description = "path", type = PromptType.FILE_PATH) String[] paths,
                    final PipeOut out)
    {
 
-      Map<String, List<String>> sortMap = new TreeMap<String, List<String>>();
-      List<String> listBuild = new LinkedList<String>();
+      List<String> listBuild = new ArrayList<String>();
 
-      for (Resource<?> resource : paths)
+      PathspecResults resources = new PathspecResults();
+      for (String path : paths == null ? new String[] { "." } : paths)
       {
-         List<Resource<?>> childResources;
+         resources.addAll(ResourceUtil.parsePathspec(resourceFactory, shell.getCurrentResource(), path));
+      }
+
+      for (Resource<?> resource : resources)
+      {
+         Iterable<Resource<?>> childResources;
 
          /**
           * Check to see if the way this resource was resolved was by a
@@ -99,9 +113,9 @@ public class LsPlugin implements Plugin
           * Otherwise, if it's fully qualified we recurse into that directory
           * and list all those files.
           */
-         if (!resource.isFlagSet(ResourceFlag.AmbiguouslyQualified) && resource.isFlagSet(ResourceFlag.Node))
+         if (!resources.isAmbiguouslyQualified(resource) && resource.isFlagSet(ResourceFlag.Node))
          {
-            childResources = resource.listResources();
+            childResources = resource.listResources(ResourceQuery.create().includeHidden(showAll).sorted());
          }
          else
          {
@@ -116,7 +130,7 @@ public class LsPlugin implements Plugin
          }
 
          String el;
-         File file;
+         FileAttributes attributes;
 
          if (list)
          {
@@ -125,11 +139,9 @@ public class LsPlugin implements Plugin
              */
             int fileCount = 0;
             boolean dir;
-            List<String> subList;
             for (Resource<?> r : childResources)
             {
-               sortMap.put(el = r.getName(), subList = new ArrayList<String>());
-               file = (File) r.getUnderlyingResourceObject();
+               el = r.getName();
 
                if (dir = (r instanceof DirectoryResource))
                {
@@ -138,18 +150,19 @@ public class LsPlugin implements Plugin
 
                if (showAll || !el.startsWith("."))
                {
+                  attributes = getAttributes(r);
                   StringBuilder permissions = new StringBuilder(dir ? "d" : "-")
-                        .append(file.canRead() ? 'r' : '-')
-                        .append(file.canWrite() ? 'w' : '-')
-                        .append(file.canExecute() ? 'x' : '-')
+                        .append(attributes.canRead() ? 'r' : '-')
+                        .append(attributes.canWrite() ? 'w' : '-')
+                        .append(attributes.canExecute() ? 'x' : '-')
                         .append("------");
 
-                  subList.add(permissions.toString());
-                  subList.add("owner"); // not supported
-                  subList.add(" users "); // not supported
-                  subList.add(String.valueOf(file.length()));
-                  subList.addAll(Arrays.asList(getDateString(file.lastModified())));
-                  subList.add(el);
+                  listBuild.add(permissions.toString());
+                  listBuild.add("owner"); // not supported
+                  listBuild.add(" users "); // not supported
+                  listBuild.add(String.valueOf(attributes.length()));
+                  listBuild.addAll(Arrays.asList(getDateString(attributes.lastModified())));
+                  listBuild.add(el);
 
                   if (!dir)
                   {
@@ -158,11 +171,6 @@ public class LsPlugin implements Plugin
                }
             }
 
-            for (List<String> sublist : sortMap.values())
-            {
-               listBuild.addAll(sublist);
-            }
-
             out.println("total " + fileCount);
          }
          else
@@ -242,6 +250,15 @@ public class LsPlugin implements Plugin
       }
    }
 
+   private static FileAttributes getAttributes(Resource<?> r)
+   {
+      if (r instanceof FileResource)
+      {
+         return ((FileResource<?>) r).getAttributes();
+      }
+      return new FileAttributes((File) r.getUnderlyingResourceObject());
+   }
+
    private static String[] getDateString(long time)
    {
       if (time < yearMarker)
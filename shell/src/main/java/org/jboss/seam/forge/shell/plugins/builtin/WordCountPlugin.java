@@ -4,8 +4,10 @@ import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
 import org.jboss.seam.forge.shell.plugins.*;
 import org.jboss.seam.forge.shell.util.GeneralUtils;
+import org.jboss.seam.forge.shell.util.WordCounter;
 
 import javax.inject.Named;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -48,27 +50,33 @@ public class WordCountPlugin implements Plugin
                continue;
             }
 
-            InputStream instream = r.getResourceInputStream();
-            try
+            Results countResults;
+            if (r.getUnderlyingResourceObject() instanceof File)
             {
-               Results countResults = count(instream, lineCount, wordCount, charCount);
-               results.addAll(countResults.getResults(r.getName()));
+               countResults = new Results(WordCounter.count((File) r.getUnderlyingResourceObject()), lineCount,
+                        wordCount, charCount);
             }
-            finally
+            else
             {
-               instream.close();
+               InputStream instream = r.getResourceInputStream();
+               try
+               {
+                  countResults = new Results(WordCounter.count(instream), lineCount, wordCount, charCount);
+               }
+               finally
+               {
+                  instream.close();
+               }
             }
+            results.addAll(countResults.getResults(r.getName()));
          }
-         Results x = new Results();
-         x.countLines = lineCount;
-         x.countWords = wordCount;
-         x.countChars = charCount;
+         Results x = new Results(null, lineCount, wordCount, charCount);
 
          printOutResults(out, x.getColumns(), results);
       }
       else if (pipeIn != null)
       {
-         Results countResults = count(pipeIn, lineCount, wordCount, charCount);
+         Results countResults = new Results(WordCounter.count(pipeIn), lineCount, wordCount, charCount);
          printOutResults(out, countResults.getColumns(), countResults.getResults("<pipe>"));
       }
    }
@@ -85,71 +93,29 @@ public class WordCountPlugin implements Plugin
       GeneralUtils.printOutTables(results, colJust, out, null);
    }
 
-   private static Results count(InputStream stream, boolean lines, boolean words, boolean chars)
-         throws IOException
+   private static class Results
    {
-      byte[] buffer = new byte[1024];
-      int read;
-
-      Results res = new Results();
-      res.countLines = lines;
-      res.countWords = words;
-      res.countChars = chars;
+      long words;
+      long characters;
+      long lines;
 
-      boolean capture = false;
-
-      byte c;
+      boolean countWords;
+      boolean countChars;
+      boolean countLines;
 
-      while ((read = stream.read(buffer)) != -1)
+      Results(WordCounter.Counts counts, boolean lines, boolean words, boolean chars)
       {
-         res.characters += read;
-         for (int i = 0; i < read; i++)
+         if (counts != null)
          {
-            if (Character.isWhitespace(c = buffer[i]))
-            {
-               if (capture)
-               {
-                  capture = false;
-                  res.words++;
-               }
-
-               /**
-                * Handle CRLF
-                */
-               if (c == '\r')
-               {
-                  if ((i + 1 < read) && (buffer[i + 1] == '\n'))
-                  {
-                     i++;
-                     c = '\n';
-                  }
-               }
-
-               if (c == '\n')
-               {
-                  res.lines++;
-               }
-            }
-            else
-            {
-               capture = true;
-            }
+            this.lines = counts.getLines();
+            this.words = counts.getWords();
+            this.characters = counts.getBytes();
          }
+         this.countLines = lines;
+         this.countWords = words;
+         this.countChars = chars;
       }
 
-      return res;
-   }
-
-   private static class Results
-   {
-      int words;
-      int characters;
-      int lines;
-
-      boolean countWords;
-      boolean countChars;
-      boolean countLines;
-
       int getColumns()
       {
          int cols = countWords ? 1 : 0;
@@ -159,7 +125,7 @@ public class WordCountPlugin implements Plugin
          return cols + 1;
       }
 
-      public int getValue(int index)
+      public long getValue(int index)
       {
          // note: the lack of breaks here is intentional, the cases are supposed
          // to fall-through,
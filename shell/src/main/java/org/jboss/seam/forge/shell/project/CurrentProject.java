@@ -31,6 +31,7 @@ import javax.inject.Singleton;
 import org.jboss.seam.forge.project.Project;
 import org.jboss.seam.forge.project.Resource;
 import org.jboss.seam.forge.project.resources.FileResource;
+import org.jboss.seam.forge.project.services.FileChangeMonitor;
 import org.jboss.seam.forge.shell.plugins.events.InitProject;
 import org.jboss.seam.forge.shell.plugins.events.ProjectChange;
 
@@ -49,6 +50,8 @@ public class CurrentProject
    private Event<InitProject> init;
    @Inject
    private Event<ProjectChange> projectChanged;
+   @Inject
+   private FileChangeMonitor monitor;
 
    @Produces
    @Default
@@ -80,6 +83,7 @@ public class CurrentProject
    {
       ProjectChange event = new ProjectChange(currentProject, project);
       this.currentProject = project;
+      monitor.watch(project == null ? null : project.getProjectRoot().getUnderlyingResourceObject());
       projectChanged.fire(event);
    }
 
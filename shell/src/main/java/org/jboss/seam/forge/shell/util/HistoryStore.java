@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.shell.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Persists shell command history to a file, one command per line, keeping at most a fixed number of entries.
+ * <p>
+ * {@link #open()} reads only the tail of the file, so loading takes the same time however large the file has grown.
+ * Commands passed to {@link #add(String)} are written by a background thread in batches; the file is compacted back to
+ * the most recent entries whenever it holds more than twice as many as are kept. {@link #close()} writes out anything
+ * still pending.
+ * <p>
+ * Several shells may share one history file. Each batch is appended, and each compaction re-reads the tail of the file
+ * and replaces it, while holding an exclusive lock on a sibling <code>.lock</code> file, so that no process loses the
+ * lines written by another.
+ */
+public class HistoryStore
+{
+   private static final String ENCODING = "UTF-8";
+   private static final int READ_CHUNK = 16384;
+   private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+   /*
+    * Queued to tell the writer thread to stop; compared by identity.
+    */
+   private static final String STOP = new String();
+
+   private final File file;
+   private final File lockFile;
+   private final int maxSize;
+
+   private final BlockingQueue<String> pending = new LinkedBlockingQueue<String>();
+   private final LinkedList<String> entries = new LinkedList<String>();
+   private int lines;
+   private boolean unterminated;
+   private Thread writer;
+   private volatile boolean failed;
+
+   public HistoryStore(final File file, final int maxSize)
+   {
+      if (maxSize < 1)
+      {
+         throw new IllegalArgumentException("History size must be at least 1");
+      }
+      this.file = file;
+      this.lockFile = new File(file.getPath() + ".lock");
+      this.maxSize = maxSize;
+   }
+
+   /**
+    * Load the most recent entries from the history file, oldest first, and start accepting new entries.
+    */
+   public synchronized List<String> open() throws IOException
+   {
+      if (writer != null)
+      {
+         throw new IllegalStateException("History is already open: " + file);
+      }
+
+      failed = false;
+      RandomAccessFile lock = lock();
+      try
+      {
+         readTail();
+      }
+      finally
+      {
+         lock.close();
+      }
+      List<String> loaded = Collections.unmodifiableList(new ArrayList<String>(entries));
+
+      writer = new Thread(new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            writeLoop();
+         }
+      }, "forge-history-writer");
+      writer.setDaemon(true);
+      writer.start();
+
+      return loaded;
+   }
+
+   /**
+    * Queue the given command to be appended to the history file. Commands are dropped once the history file could not
+    * be written, rather than queued for a writer that has stopped.
+    */
+   public void add(final String command)
+   {
+      if (!failed)
+      {
+         pending.add(command);
+      }
+   }
+
+   /**
+    * Write out all queued commands, and stop the background writer.
+    */
+   public void close()
+   {
+      Thread thread;
+      synchronized (this)
+      {
+         thread = writer;
+         writer = null;
+      }
+
+      if (thread != null)
+      {
+         pending.add(STOP);
+         try
+         {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Replace {@link #entries} with the last {@link #maxSize} lines of the file, scanning backwards from the end of the
+    * file, and set {@link #lines} to the number of lines in the file, or {@link #maxSize} + 1 if it contains more lines
+    * than were read.
+    */
+   private void readTail() throws IOException
+   {
+      entries.clear();
+      lines = 0;
+      unterminated = false;
+      if (!file.exists())
+      {
+         return;
+      }
+
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try
+      {
+         long length = raf.length();
+         long start = 0;
+         boolean truncated = false;
+         int newlines = 0;
+
+         byte[] chunk = new byte[READ_CHUNK];
+         long end = length;
+         search: while (end > 0)
+         {
+            int n = (int) Math.min(chunk.length, end);
+            long chunkStart = end - n;
+            raf.seek(chunkStart);
+            raf.readFully(chunk, 0, n);
+
+            for (int i = n - 1; i >= 0; i--)
+            {
+               if ((chunk[i] == '\n') && (chunkStart + i != length - 1) && (++newlines == maxSize))
+               {
+                  start = chunkStart + i + 1;
+                  truncated = true;
+                  break search;
+               }
+            }
+            end = chunkStart;
+         }
+
+         byte[] data = new byte[(int) (length - start)];
+         raf.seek(start);
+         raf.readFully(data);
+         unterminated = (data.length > 0) && (data[data.length - 1] != '\n');
+
+         int count = 0;
+         for (String line : new String(data, ENCODING).split("\n"))
+         {
+            if (line.length() > 0)
+            {
+               count++;
+               entries.add(line);
+            }
+         }
+         lines = truncated ? maxSize + 1 : count;
+      }
+      finally
+      {
+         raf.close();
+      }
+   }
+
+   private void writeLoop()
+   {
+      try
+      {
+         if (lines > maxSize)
+         {
+            compact();
+         }
+
+         List<String> batch = new ArrayList<String>();
+         boolean stopped = false;
+         while (!stopped)
+         {
+            batch.add(pending.take());
+            pending.drainTo(batch);
+
+            for (int i = 0; i < batch.size(); i++)
+            {
+               if (batch.get(i) == STOP)
+               {
+                  stopped = true;
+                  batch.subList(i, batch.size()).clear();
+               }
+            }
+            append(batch);
+            batch.clear();
+
+            if (lines >= 2 * maxSize)
+            {
+               compact();
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+      catch (IOException e)
+      {
+         failed = true;
+         pending.clear();
+         System.err.println("could not write history file: " + file.getAbsolutePath());
+      }
+   }
+
+   private void remember(final String command)
+   {
+      entries.add(command);
+      if (entries.size() > maxSize)
+      {
+         entries.removeFirst();
+      }
+      lines++;
+   }
+
+   /**
+    * Append the given commands to the history file.
+    */
+   private void append(final List<String> commands) throws IOException
+   {
+      if (commands.isEmpty())
+      {
+         return;
+      }
+
+      RandomAccessFile lock = lock();
+      try
+      {
+         Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), ENCODING));
+         try
+         {
+            if (unterminated)
+            {
+               out.write('\n');
+               unterminated = false;
+            }
+            for (String command : commands)
+            {
+               out.write(command);
+               out.write('\n');
+               remember(command);
+            }
+         }
+         finally
+         {
+            out.close();
+         }
+      }
+      finally
+      {
+         lock.close();
+      }
+   }
+
+   /**
+    * Rewrite the history file so that it contains only its most recent entries, including those appended by other
+    * processes since it was last read.
+    */
+   private void compact() throws IOException
+   {
+      RandomAccessFile lock = lock();
+      try
+      {
+         readTail();
+
+         File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+         try
+         {
+            Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), ENCODING));
+            try
+            {
+               for (String command : entries)
+               {
+                  out.write(command);
+                  out.write('\n');
+               }
+            }
+            finally
+            {
+               out.close();
+            }
+
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file)))
+            {
+               throw new IOException("could not replace history file: " + file.getAbsolutePath());
+            }
+         }
+         finally
+         {
+            temp.delete();
+         }
+         lines = entries.size();
+         unterminated = false;
+      }
+      finally
+      {
+         lock.close();
+      }
+   }
+
+   /**
+    * Take an exclusive lock on {@link #lockFile}, blocking until any other process has released it. The lock is
+    * released when the returned file is closed.
+    */
+   private RandomAccessFile lock() throws IOException
+   {
+      RandomAccessFile raf = new RandomAccessFile(lockFile, "rw");
+      try
+      {
+         FileLock lock = raf.getChannel().lock();
+         if (lock == null)
+         {
+            throw new IOException("could not lock history file: " + lockFile.getAbsolutePath());
+         }
+         return raf;
+      }
+      catch (IOException e)
+      {
+         raf.close();
+         throw e;
+      }
+   }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.shell.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether a line of text contains a match for a pattern. Instances are immutable and may be shared between
+ * threads.
+ */
+public abstract class LineMatcher
+{
+   private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+   /**
+    * Return true if the given line contains a match anywhere within it.
+    */
+   public abstract boolean find(CharSequence line);
+
+   /**
+    * Compile the given pattern. Patterns containing no regular expression meta-characters are searched for as plain
+    * text, which is considerably faster than running the regular expression engine over every line.
+    */
+   public static LineMatcher compile(final String pattern, final boolean ignoreCase)
+   {
+      if (isLiteral(pattern))
+      {
+         return new LiteralMatcher(pattern, ignoreCase);
+      }
+      return new RegexMatcher(Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE
+               | Pattern.UNICODE_CASE : 0));
+   }
+
+   private static boolean isLiteral(final String pattern)
+   {
+      for (int i = 0; i < pattern.length(); i++)
+      {
+         if (REGEX_META_CHARACTERS.indexOf(pattern.charAt(i)) != -1)
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static class RegexMatcher extends LineMatcher
+   {
+      private final Pattern pattern;
+
+      public RegexMatcher(final Pattern pattern)
+      {
+         this.pattern = pattern;
+      }
+
+      @Override
+      public boolean find(final CharSequence line)
+      {
+         return pattern.matcher(line).find();
+      }
+   }
+
+   /**
+    * Boyer-Moore-Horspool substring search. The skip table is indexed by the low byte of each character, keeping the
+    * smallest skip for characters that share a low byte, so it stays small while remaining correct for any input.
+    */
+   private static class LiteralMatcher extends LineMatcher
+   {
+      private final char[] needle;
+      private final int[] skip = new int[256];
+      private final boolean ignoreCase;
+
+      public LiteralMatcher(final String pattern, final boolean ignoreCase)
+      {
+         this.ignoreCase = ignoreCase;
+         this.needle = new char[pattern.length()];
+         for (int i = 0; i < needle.length; i++)
+         {
+            needle[i] = fold(pattern.charAt(i));
+         }
+
+         int last = needle.length - 1;
+         for (int i = 0; i < skip.length; i++)
+         {
+            skip[i] = needle.length;
+         }
+         for (int i = 0; i < last; i++)
+         {
+            skip[needle[i] & 0xFF] = last - i;
+         }
+      }
+
+      @Override
+      public boolean find(final CharSequence line)
+      {
+         int last = needle.length - 1;
+         int end = line.length() - needle.length;
+         int i = 0;
+         while (i <= end)
+         {
+            int j = last;
+            while ((j >= 0) && (fold(line.charAt(i + j)) == needle[j]))
+            {
+               j--;
+            }
+            if (j < 0)
+            {
+               return true;
+            }
+            i += skip[fold(line.charAt(i + last)) & 0xFF];
+         }
+         return false;
+      }
+
+      private char fold(final char c)
+      {
+         return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+      }
+   }
+}
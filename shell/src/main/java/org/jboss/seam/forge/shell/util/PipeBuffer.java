@@ -0,0 +1,234 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * A bounded, blocking byte buffer connecting the {@link org.jboss.seam.forge.shell.plugins.PipeOut} of one command to
+ * the {@link org.jboss.seam.forge.shell.plugins.PipeIn} of the next. Writers block while the buffer is full, and
+ * readers block while it is empty, so both commands run concurrently and memory use does not depend on the amount of
+ * data piped.
+ * <p>
+ * Once the writing side has been closed, readers receive the remaining data followed by end-of-stream. Once the
+ * reading side has been closed (e.g. because the downstream command stopped reading), further writes are discarded.
+ */
+public class PipeBuffer
+{
+   public static final int DEFAULT_SIZE = 64 * 1024;
+
+   /**
+    * The encoding of all text written to, and read from, a pipe.
+    */
+   public static final Charset CHARSET = Charset.forName("UTF-8");
+
+   private final byte[] buffer;
+   private int head = 0;
+   private int count = 0;
+
+   private boolean writeClosed = false;
+   private boolean readClosed = false;
+
+   private final InputStream inputStream = new InputStream()
+   {
+      @Override
+      public int read() throws IOException
+      {
+         return PipeBuffer.this.read();
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException
+      {
+         return PipeBuffer.this.read(b, off, len);
+      }
+
+      @Override
+      public int available() throws IOException
+      {
+         return PipeBuffer.this.available();
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+         closeRead();
+      }
+   };
+
+   public PipeBuffer()
+   {
+      this(DEFAULT_SIZE);
+   }
+
+   public PipeBuffer(final int size)
+   {
+      this.buffer = new byte[size];
+   }
+
+   /**
+    * Return the {@link InputStream} from which the data written to this buffer can be read.
+    */
+   public InputStream getInputStream()
+   {
+      return inputStream;
+   }
+
+   public void write(final byte b)
+   {
+      write(new byte[] { b }, 0, 1);
+   }
+
+   public void write(final byte[] b)
+   {
+      write(b, 0, b.length);
+   }
+
+   /**
+    * Write the given bytes, blocking until there is room for all of them, or until the reading side has been closed.
+    */
+   public synchronized void write(final byte[] b, int off, int len)
+   {
+      if (writeClosed)
+      {
+         throw new IllegalStateException("pipe closed");
+      }
+
+      while ((len > 0) && !readClosed)
+      {
+         while ((count == buffer.length) && !readClosed)
+         {
+            awaitChange();
+         }
+         if (readClosed)
+         {
+            break;
+         }
+
+         int tail = (head + count) % buffer.length;
+         int chunk = Math.min(len, Math.min(buffer.length - count, buffer.length - tail));
+         System.arraycopy(b, off, buffer, tail, chunk);
+         count += chunk;
+         off += chunk;
+         len -= chunk;
+         notifyAll();
+      }
+   }
+
+   /**
+    * Signal that no more data will be written. Readers will see end-of-stream once the buffer is drained.
+    */
+   public synchronized void closeWrite()
+   {
+      writeClosed = true;
+      notifyAll();
+   }
+
+   /**
+    * Signal that no more data will be read. Pending and future writes are discarded.
+    */
+   public synchronized void closeRead()
+   {
+      readClosed = true;
+      count = 0;
+      notifyAll();
+   }
+
+   private synchronized int read() throws IOException
+   {
+      if (!awaitData())
+      {
+         return -1;
+      }
+
+      int result = buffer[head] & 0xff;
+      head = (head + 1) % buffer.length;
+      count--;
+      notifyAll();
+      return result;
+   }
+
+   private synchronized int read(final byte[] b, final int off, final int len) throws IOException
+   {
+      if (len == 0)
+      {
+         return 0;
+      }
+      if (!awaitData())
+      {
+         return -1;
+      }
+
+      int read = 0;
+      while ((read < len) && (count > 0))
+      {
+         int chunk = Math.min(len - read, Math.min(count, buffer.length - head));
+         System.arraycopy(buffer, head, b, off + read, chunk);
+         head = (head + chunk) % buffer.length;
+         count -= chunk;
+         read += chunk;
+      }
+      notifyAll();
+      return read;
+   }
+
+   private synchronized int available()
+   {
+      return count;
+   }
+
+   /**
+    * Wait until there is data to read; return false if the end of the stream has been reached instead.
+    */
+   private boolean awaitData() throws IOException
+   {
+      try
+      {
+         while ((count == 0) && !writeClosed && !readClosed)
+         {
+            wait();
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while reading from pipe");
+      }
+      return count > 0;
+   }
+
+   private void awaitChange()
+   {
+      try
+      {
+         wait();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while writing to pipe", e);
+      }
+   }
+}
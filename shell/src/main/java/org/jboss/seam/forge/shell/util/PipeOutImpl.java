@@ -33,29 +33,91 @@ public class PipeOutImpl implements PipeOut
    private StringBuilder buffer = new StringBuilder();
    private Shell shell;
    private boolean piped = false;
+   private PipeBuffer pipe;
 
    public PipeOutImpl(Shell shell)
    {
       this.shell = shell;
    }
 
+   /**
+    * Create a {@link PipeOut} that streams all output into the given {@link PipeBuffer}.
+    */
+   public PipeOutImpl(Shell shell, PipeBuffer pipe)
+   {
+      this.shell = shell;
+      this.pipe = pipe;
+      this.piped = true;
+   }
+
    @Override
    public void write(byte b)
    {
-      if (piped)
+      if (pipe != null)
+      {
+         pipe.write(b);
+      }
+      else if (piped)
       {
          buffer.append((char) b);
       }
       else
       {
-         shell.print(String.valueOf((char) b));
+         shell.write(b);
+      }
+   }
+
+   @Override
+   public void write(char[] b, int off, int len)
+   {
+      if (pipe != null)
+      {
+         pipe.write(new String(b, off, len).getBytes(PipeBuffer.CHARSET));
+      }
+      else if (piped)
+      {
+         buffer.append(b, off, len);
+      }
+      else
+      {
+         shell.write(b, off, len);
+      }
+   }
+
+   @Override
+   public void write(CharSequence s, int off, int len)
+   {
+      if (pipe != null)
+      {
+         pipe.write(s.subSequence(off, off + len).toString().getBytes(PipeBuffer.CHARSET));
+      }
+      else if (piped)
+      {
+         buffer.append(s, off, off + len);
+      }
+      else
+      {
+         shell.write(s, off, len);
+      }
+   }
+
+   @Override
+   public void flush()
+   {
+      if (pipe == null)
+      {
+         shell.flush();
       }
    }
 
    @Override
    public void print(String s)
    {
-      if (piped)
+      if (pipe != null)
+      {
+         pipe.write(String.valueOf(s).getBytes(PipeBuffer.CHARSET));
+      }
+      else if (piped)
       {
          buffer.append(s);
       }
@@ -69,7 +131,11 @@ public class PipeOutImpl implements PipeOut
    @Override
    public void println(String s)
    {
-      if (piped)
+      if (pipe != null)
+      {
+         pipe.write((s + "\n").getBytes(PipeBuffer.CHARSET));
+      }
+      else if (piped)
       {
          buffer.append(s).append("\n");
       }
@@ -82,7 +148,11 @@ public class PipeOutImpl implements PipeOut
    @Override
    public void println()
    {
-      if (piped)
+      if (pipe != null)
+      {
+         pipe.write((byte) '\n');
+      }
+      else if (piped)
       {
          buffer.append("\n");
       }
@@ -125,6 +195,6 @@ public class PipeOutImpl implements PipeOut
    @Override
    public String getBuffer()
    {
-      return buffer.toString();
+      return pipe != null ? null : buffer.toString();
    }
 }
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.shell.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.jboss.seam.forge.shell.ShellPrintWriter;
+
+/**
+ * Runs a native process and forwards its output to a {@link ShellPrintWriter} while it runs. Standard output and
+ * standard error are pumped concurrently, so a child that fills one pipe while the other is being read cannot block,
+ * and output is forwarded a line at a time, so a piped consumer sees each line as soon as it is written.
+ * <p>
+ * The process is destroyed if the calling thread is interrupted, or if the shell exits (e.g. on Ctrl-C) before the
+ * process has finished.
+ */
+public class ProcessBridge
+{
+   private static final int BUFFER_SIZE = 8192;
+
+   private static ExecutorService executor;
+
+   /**
+    * Run the given command in the given working directory, forwarding all of its output to the given
+    * {@link ShellPrintWriter}, and wait for it to complete.
+    *
+    * @return the exit value of the process, or -1 if the calling thread was interrupted
+    */
+   public static int execute(final String[] command, final File directory, final ShellPrintWriter out)
+            throws IOException
+   {
+      final Process process = Runtime.getRuntime().exec(command, null, directory);
+
+      Thread destroyer = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            process.destroy();
+         }
+      };
+      Runtime.getRuntime().addShutdownHook(destroyer);
+
+      Future<?> stdout = getExecutor().submit(new Pump(process.getInputStream(), out));
+      Future<?> stderr = getExecutor().submit(new Pump(process.getErrorStream(), out));
+      try
+      {
+         int status = process.waitFor();
+         stdout.get();
+         stderr.get();
+         return status;
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         return -1;
+      }
+      catch (ExecutionException e)
+      {
+         throw new RuntimeException("failed to forward output of [" + command[0] + "]", e.getCause());
+      }
+      finally
+      {
+         process.destroy();
+         stdout.cancel(true);
+         stderr.cancel(true);
+         try
+         {
+            Runtime.getRuntime().removeShutdownHook(destroyer);
+         }
+         catch (IllegalStateException e)
+         {
+            // already shutting down; the hook will destroy the process
+         }
+      }
+   }
+
+   private static synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newCachedThreadPool(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-native-process");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   /**
+    * Copies a process stream to a {@link ShellPrintWriter}, one line at a time. Lines are written while holding the
+    * writer's lock, so that lines from standard output and standard error are never interleaved.
+    */
+   private static class Pump implements Runnable
+   {
+      private final InputStream in;
+      private final ShellPrintWriter out;
+
+      public Pump(final InputStream in, final ShellPrintWriter out)
+      {
+         this.in = in;
+         this.out = out;
+      }
+
+      @Override
+      public void run()
+      {
+         byte[] buf = new byte[BUFFER_SIZE];
+         byte[] line = new byte[BUFFER_SIZE];
+         int length = 0;
+         int read;
+
+         try
+         {
+            while ((read = in.read(buf)) != -1)
+            {
+               for (int i = 0; i < read; i++)
+               {
+                  byte b = buf[i];
+                  if (b == '\n')
+                  {
+                     int end = (length > 0) && (line[length - 1] == '\r') ? length - 1 : length;
+                     String s = new String(line, 0, end);
+                     synchronized (out)
+                     {
+                        out.println(s);
+                     }
+                     length = 0;
+                  }
+                  else
+                  {
+                     if (length == line.length)
+                     {
+                        byte[] grown = new byte[line.length * 2];
+                        System.arraycopy(line, 0, grown, 0, length);
+                        line = grown;
+                     }
+                     line[length++] = b;
+                  }
+               }
+            }
+
+            if (length > 0)
+            {
+               String s = new String(line, 0, length);
+               synchronized (out)
+               {
+                  out.print(s);
+               }
+            }
+         }
+         catch (IOException e)
+         {
+            // the process was destroyed; nothing more to forward
+         }
+         finally
+         {
+            try
+            {
+               in.close();
+            }
+            catch (IOException e)
+            {
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,236 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.seam.forge.shell.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects shell output in a character buffer, so that many small writes reach the underlying {@link Writer} as a few
+ * large ones. The buffer is written out when it is full, when {@link #flush()} is called, and shortly after any write
+ * that leaves output pending, so that a partial line never lingers. When line flushing is enabled (as for a terminal)
+ * it is also written out at the end of every line.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ShellOutputBuffer
+{
+   private static final int DEFAULT_CAPACITY = 8192;
+   private static final long FLUSH_DELAY_MILLIS = 50;
+
+   private static ScheduledExecutorService scheduler;
+
+   private final Writer writer;
+   private final boolean lineFlush;
+   private final char[] buffer;
+   private int count;
+   private boolean flushScheduled;
+
+   private final Runnable scheduledFlush = new Runnable()
+   {
+      @Override
+      public void run()
+      {
+         synchronized (ShellOutputBuffer.this)
+         {
+            flushScheduled = false;
+            flush();
+         }
+      }
+   };
+
+   public ShellOutputBuffer(final Writer writer, final boolean lineFlush)
+   {
+      this(writer, lineFlush, DEFAULT_CAPACITY);
+   }
+
+   public ShellOutputBuffer(final Writer writer, final boolean lineFlush, final int capacity)
+   {
+      this.writer = writer;
+      this.lineFlush = lineFlush;
+      this.buffer = new char[capacity];
+   }
+
+   public synchronized void write(final char c)
+   {
+      if (count == buffer.length)
+      {
+         drain();
+      }
+      buffer[count++] = c;
+      written(c == '\n');
+   }
+
+   public synchronized void write(final char[] b, final int off, final int len)
+   {
+      if (len >= buffer.length)
+      {
+         drain();
+         try
+         {
+            writer.write(b, off, len);
+         }
+         catch (IOException e)
+         {
+            throw new IllegalStateException("Shell output stream failure", e);
+         }
+      }
+      else
+      {
+         if (count + len > buffer.length)
+         {
+            drain();
+         }
+         System.arraycopy(b, off, buffer, count, len);
+         count += len;
+      }
+      written(lineFlush && containsNewline(b, off, len));
+   }
+
+   public synchronized void write(final CharSequence s, final int off, final int len)
+   {
+      if (len >= buffer.length)
+      {
+         drain();
+         try
+         {
+            writer.append(s, off, off + len);
+         }
+         catch (IOException e)
+         {
+            throw new IllegalStateException("Shell output stream failure", e);
+         }
+      }
+      else
+      {
+         if (count + len > buffer.length)
+         {
+            drain();
+         }
+         if (s instanceof String)
+         {
+            ((String) s).getChars(off, off + len, buffer, count);
+         }
+         else
+         {
+            for (int i = 0; i < len; i++)
+            {
+               buffer[count + i] = s.charAt(off + i);
+            }
+         }
+         count += len;
+      }
+      written(lineFlush && containsNewline(s, off, len));
+   }
+
+   /**
+    * Write out any buffered output and flush the underlying {@link Writer}.
+    */
+   public synchronized void flush()
+   {
+      drain();
+      try
+      {
+         writer.flush();
+      }
+      catch (IOException e)
+      {
+         throw new IllegalStateException("Shell output stream failure", e);
+      }
+   }
+
+   private void written(final boolean endOfLine)
+   {
+      if (lineFlush && endOfLine)
+      {
+         flush();
+      }
+      else if (!flushScheduled)
+      {
+         flushScheduled = true;
+         getScheduler().schedule(scheduledFlush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private void drain()
+   {
+      if (count > 0)
+      {
+         try
+         {
+            writer.write(buffer, 0, count);
+         }
+         catch (IOException e)
+         {
+            throw new IllegalStateException("Shell output stream failure", e);
+         }
+         count = 0;
+      }
+   }
+
+   private static boolean containsNewline(final char[] b, final int off, final int len)
+   {
+      for (int i = off + len - 1; i >= off; i--)
+      {
+         if (b[i] == '\n')
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static boolean containsNewline(final CharSequence s, final int off, final int len)
+   {
+      for (int i = off + len - 1; i >= off; i--)
+      {
+         if (s.charAt(i) == '\n')
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static synchronized ScheduledExecutorService getScheduler()
+   {
+      if (scheduler == null)
+      {
+         scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-output-flusher");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return scheduler;
+   }
+}
@@ -0,0 +1,289 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Counts the lines, words and bytes of files and streams, as printed by the <code>wc</code> command.
+ * <p>
+ * A line is counted for every <code>'\n'</code>. A word is counted each time a run of non-whitespace bytes is ended by
+ * a whitespace byte; bytes outside of 7-bit ASCII are never whitespace.
+ * <p>
+ * Large files are split into segments which are memory-mapped and counted in parallel. Each segment also reports
+ * whether it starts with whitespace and ends within a word, so that a word spanning two segments is counted exactly
+ * once when the segments are merged.
+ */
+public class WordCounter
+{
+   private static final int BUFFER_SIZE = 65536;
+   private static final long SEGMENT_SIZE = 16 * 1024 * 1024;
+
+   private static final boolean[] WHITESPACE = new boolean[256];
+
+   static
+   {
+      for (int i = 0; i < WHITESPACE.length; i++)
+      {
+         WHITESPACE[i] = Character.isWhitespace((byte) i);
+      }
+   }
+
+   private static ExecutorService executor;
+
+   /**
+    * The totals for a single file or stream.
+    */
+   public static class Counts
+   {
+      private long lines;
+      private long words;
+      private long bytes;
+
+      /*
+       * Segment boundary state, used when merging.
+       */
+      private boolean startsWithWhitespace;
+      private boolean endsInWord;
+
+      public long getLines()
+      {
+         return lines;
+      }
+
+      public long getWords()
+      {
+         return words;
+      }
+
+      public long getBytes()
+      {
+         return bytes;
+      }
+
+      /**
+       * Append the counts of the segment immediately following this one.
+       */
+      void merge(final Counts next)
+      {
+         if (next.bytes == 0)
+         {
+            return;
+         }
+         if (endsInWord && next.startsWithWhitespace)
+         {
+            words++;
+         }
+         if (bytes == 0)
+         {
+            startsWithWhitespace = next.startsWithWhitespace;
+         }
+         lines += next.lines;
+         words += next.words;
+         bytes += next.bytes;
+         endsInWord = next.endsInWord;
+      }
+   }
+
+   /**
+    * Count the given file, splitting it into memory-mapped segments that are counted in parallel if it is large.
+    */
+   public static Counts count(final File file) throws IOException
+   {
+      return count(file, SEGMENT_SIZE);
+   }
+
+   /**
+    * Count the given file, splitting it into memory-mapped segments of at most the given size. Small segment sizes are
+    * useful for exercising the merging of segments that split words and lines.
+    */
+   public static Counts count(final File file, final long segmentSize) throws IOException
+   {
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try
+      {
+         final FileChannel channel = raf.getChannel();
+         long size = channel.size();
+         if (size <= segmentSize)
+         {
+            return countSegment(channel, 0, size);
+         }
+
+         List<Future<Counts>> segments = new ArrayList<Future<Counts>>();
+         try
+         {
+            for (long position = 0; position < size; position += segmentSize)
+            {
+               final long start = position;
+               final long length = Math.min(segmentSize, size - position);
+               segments.add(getExecutor().submit(new Callable<Counts>()
+               {
+                  @Override
+                  public Counts call() throws Exception
+                  {
+                     return countSegment(channel, start, length);
+                  }
+               }));
+            }
+
+            Counts total = new Counts();
+            for (Future<Counts> segment : segments)
+            {
+               total.merge(segment.get());
+            }
+            return total;
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while counting " + file.getName());
+         }
+         catch (ExecutionException e)
+         {
+            if (e.getCause() instanceof IOException)
+            {
+               throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+         }
+         finally
+         {
+            for (Future<Counts> segment : segments)
+            {
+               segment.cancel(true);
+            }
+         }
+      }
+      finally
+      {
+         raf.close();
+      }
+   }
+
+   /**
+    * Count the given stream, reading it in large blocks.
+    */
+   public static Counts count(final InputStream stream) throws IOException
+   {
+      Counts total = new Counts();
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = stream.read(buffer)) != -1)
+      {
+         total.merge(countBytes(buffer, read));
+      }
+      return total;
+   }
+
+   private static Counts countSegment(final FileChannel channel, final long start, final long length)
+            throws IOException
+   {
+      Counts total = new Counts();
+      if (length == 0)
+      {
+         return total;
+      }
+
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, length)];
+      while (mapped.hasRemaining())
+      {
+         int read = Math.min(buffer.length, mapped.remaining());
+         mapped.get(buffer, 0, read);
+         total.merge(countBytes(buffer, read));
+      }
+      return total;
+   }
+
+   private static Counts countBytes(final byte[] buffer, final int length)
+   {
+      Counts counts = new Counts();
+      if (length == 0)
+      {
+         return counts;
+      }
+
+      boolean[] whitespace = WHITESPACE;
+      long lines = 0;
+      long words = 0;
+      boolean inWord = false;
+
+      for (int i = 0; i < length; i++)
+      {
+         byte c = buffer[i];
+         if (whitespace[c & 0xFF])
+         {
+            if (inWord)
+            {
+               inWord = false;
+               words++;
+            }
+            if (c == '\n')
+            {
+               lines++;
+            }
+         }
+         else
+         {
+            inWord = true;
+         }
+      }
+
+      counts.lines = lines;
+      counts.words = words;
+      counts.bytes = length;
+      counts.startsWithWhitespace = whitespace[buffer[0] & 0xFF];
+      counts.endsInWord = inWord;
+      return counts;
+   }
+
+   private static synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+               Thread thread = new Thread(runnable, "forge-word-count");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+}
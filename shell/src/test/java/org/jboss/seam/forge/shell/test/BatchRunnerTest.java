@@ -0,0 +1,193 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.seam.forge.shell.BatchRunner;
+import org.jboss.seam.forge.shell.BatchRunner.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchRunnerTest
+{
+   private File dir;
+
+   @Before
+   public void createDirectory() throws IOException
+   {
+      dir = File.createTempFile("forge-batch-test", "");
+      dir.delete();
+      dir.mkdirs();
+   }
+
+   @After
+   public void deleteDirectory()
+   {
+      delete(dir);
+   }
+
+   @Test
+   public void testDirectoriesExpandToSortedScripts() throws Exception
+   {
+      File b = touch("b.fsh");
+      File a = touch("a.fsh");
+      touch("notes.txt");
+      File single = touch("single.txt");
+
+      List<File> scripts = BatchRunner.collectScripts(Arrays.asList(dir, single));
+      assertEquals(Arrays.asList(a, b, single), scripts);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testDirectoryWithoutScriptsIsRejected() throws Exception
+   {
+      touch("notes.txt");
+      BatchRunner.collectScripts(Arrays.asList(dir));
+   }
+
+   @Test
+   public void testSummaryIsTabSeparated() throws Exception
+   {
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      BatchRunner.printSummary(Arrays.asList(new Result(new File("a.fsh"), 0, 12, new File("0-a.fsh.log")),
+               new Result(new File("b.fsh"), 1, 34, new File("1-b.fsh.log"))), new PrintStream(buf));
+
+      String[] lines = buf.toString().split("\\r?\\n");
+      assertEquals(3, lines.length);
+      assertTrue(lines[0].startsWith("#"));
+      assertEquals("a.fsh\t0\t12\t0-a.fsh.log", lines[1]);
+      assertEquals("b.fsh\t1\t34\t1-b.fsh.log", lines[2]);
+   }
+
+   @Test
+   public void testScriptsAreKilledAfterTimeout() throws Exception
+   {
+      File script = touch("hang.fsh");
+      BatchRunner runner = new BatchRunner(1, dir, 500)
+      {
+         @Override
+         protected List<String> createCommand(final File script, final File configDir)
+         {
+            return Arrays.asList(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath(),
+                     "-cp", System.getProperty("java.class.path"), Hang.class.getName());
+         }
+      };
+
+      long start = System.currentTimeMillis();
+      List<Result> results = runner.execute(Arrays.asList(script));
+      assertEquals(Result.TIMED_OUT, results.get(0).getStatus());
+      assertTrue(System.currentTimeMillis() - start < 30000);
+   }
+
+   @Test
+   public void testScriptsRunInShellProcessesWithPrivateConfig() throws Exception
+   {
+      File ok = write("ok.fsh", "echo \"batch ok\";\n");
+      File bad = write("bad.fsh", "no-such-command;\n");
+      File logs = new File(dir, "logs");
+
+      List<Result> results = new BatchRunner(2, logs).execute(Arrays.asList(ok, bad));
+
+      assertEquals(0, results.get(0).getStatus());
+      assertEquals(1, results.get(1).getStatus());
+      assertTrue(read(results.get(0).getLog()).contains("batch ok"));
+      assertTrue(new File(logs, "0-ok.fsh.forge/config").isFile());
+      assertTrue(new File(logs, "1-bad.fsh.forge/config").isFile());
+   }
+
+   public static class Hang
+   {
+      public static void main(final String[] args) throws Exception
+      {
+         Thread.sleep(60000);
+      }
+   }
+
+   private File write(final String name, final String content) throws IOException
+   {
+      File file = new File(dir, name);
+      Writer out = new FileWriter(file);
+      try
+      {
+         out.write(content);
+      }
+      finally
+      {
+         out.close();
+      }
+      return file;
+   }
+
+   private static String read(final File file) throws IOException
+   {
+      Reader in = new FileReader(file);
+      try
+      {
+         StringBuilder result = new StringBuilder();
+         char[] buf = new char[8192];
+         int read;
+         while ((read = in.read(buf)) != -1)
+         {
+            result.append(buf, 0, read);
+         }
+         return result.toString();
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+
+   private static void delete(final File file)
+   {
+      File[] children = file.listFiles();
+      if (children != null)
+      {
+         for (File child : children)
+         {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+   private File touch(final String name) throws IOException
+   {
+      File file = new File(dir, name);
+      file.createNewFile();
+      return file;
+   }
+}
@@ -23,6 +23,8 @@
 package org.jboss.seam.forge.shell.test;
 
 import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.seam.forge.shell.command.ExecutionParser;
+import org.jboss.seam.forge.shell.exceptions.CommandExecutionException;
 import org.jboss.seam.forge.shell.test.command.MockOptionTestPlugin;
 import org.jboss.seam.forge.test.AbstractShellTest;
 import org.junit.Test;
@@ -31,7 +33,9 @@ import org.junit.runner.RunWith;
 import javax.inject.Inject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 /**
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
@@ -42,6 +46,9 @@ public class ExecutionParserTest extends AbstractShellTest
    @Inject
    private MockOptionTestPlugin plugin;
 
+   @Inject
+   private ExecutionParser parser;
+
    @Test
    public void testInvalidSuppliedOptionIsCorrected() throws Exception
    {
@@ -67,4 +74,46 @@ public class ExecutionParserTest extends AbstractShellTest
       getShell().execute("motp booleanOptionOmitted");
       assertEquals(false, plugin.getBooleanOptionOmitted());
    }
+
+   @Test
+   public void testOmittedPrimitiveOptionUsesDefaultValue() throws Exception
+   {
+      getShell().execute("motp intOption");
+      assertEquals(Integer.valueOf(3), plugin.getIntOption());
+      getShell().execute("motp intOption --count 7");
+      assertEquals(Integer.valueOf(7), plugin.getIntOption());
+      // the command parser is shared, so nothing may carry over from the previous command
+      getShell().execute("motp intOption");
+      assertEquals(Integer.valueOf(3), plugin.getIntOption());
+   }
+
+   @Test
+   public void testOmittedBoxedBooleanFlagDefaultsToFalse() throws Exception
+   {
+      getShell().execute("motp booleanFlag");
+      assertEquals(false, plugin.getBooleanFlag());
+      getShell().execute("motp booleanFlag --flag");
+      assertEquals(true, plugin.getBooleanFlag());
+   }
+
+   @Test
+   public void testAlreadyTypedValueIsPassedThrough() throws Exception
+   {
+      getShell().execute("motp pipeOut");
+      assertNotNull(plugin.getPipeOut());
+   }
+
+   @Test
+   public void testConversionErrorNamesOptionAndType() throws Exception
+   {
+      try
+      {
+         parser.parse("motp intOption --count abc").perform(null);
+         fail();
+      }
+      catch (CommandExecutionException e)
+      {
+         assertEquals("command option 'Some count' must be of type 'int'", e.getMessage());
+      }
+   }
 }
@@ -24,6 +24,7 @@ package org.jboss.seam.forge.shell.test.command;
 import org.jboss.seam.forge.shell.PromptType;
 import org.jboss.seam.forge.shell.plugins.Command;
 import org.jboss.seam.forge.shell.plugins.Option;
+import org.jboss.seam.forge.shell.plugins.PipeOut;
 import org.jboss.seam.forge.shell.plugins.Plugin;
 
 import javax.inject.Named;
@@ -39,6 +40,9 @@ public class MockOptionTestPlugin implements Plugin
    private String suppliedOption = "";
    private String requiredOption = "";
    private Boolean booleanOptionOmitted = null;
+   private Integer intOption = null;
+   private Boolean booleanFlag = null;
+   private PipeOut pipeOut = null;
 
    @Command("suppliedOption")
    public void suppliedOption(@Option(name = "package",
@@ -64,6 +68,28 @@ public class MockOptionTestPlugin implements Plugin
       booleanOptionOmitted = option;
    }
 
+   @Command("intOption")
+   public void intOption(@Option(name = "count",
+         defaultValue = "3",
+         description = "Some count") final int option)
+   {
+      intOption = option;
+   }
+
+   @Command("booleanFlag")
+   public void booleanFlag(@Option(name = "flag",
+         flagOnly = true,
+         description = "Some boxed flag") final Boolean option)
+   {
+      booleanFlag = option;
+   }
+
+   @Command("pipeOut")
+   public void pipeOut(final PipeOut out)
+   {
+      pipeOut = out;
+   }
+
    public String getSuppliedOption()
    {
       return suppliedOption;
@@ -93,4 +119,19 @@ public class MockOptionTestPlugin implements Plugin
    {
       this.booleanOptionOmitted = booleanOptionOmitted;
    }
+
+   public Integer getIntOption()
+   {
+      return intOption;
+   }
+
+   public Boolean getBooleanFlag()
+   {
+      return booleanFlag;
+   }
+
+   public PipeOut getPipeOut()
+   {
+      return pipeOut;
+   }
 }
@@ -0,0 +1,170 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+
+import org.jboss.seam.forge.project.PackagingType;
+import org.jboss.seam.forge.project.Project;
+import org.jboss.seam.forge.project.events.FileModified;
+import org.jboss.seam.forge.project.facets.PackagingFacet;
+import org.jboss.seam.forge.project.packaging.PackagingChanged;
+import org.jboss.seam.forge.project.resources.builtin.DirectoryResource;
+import org.jboss.seam.forge.shell.Shell;
+import org.jboss.seam.forge.shell.command.CommandLibraryExtension;
+import org.jboss.seam.forge.shell.command.PluginMetadata;
+import org.jboss.seam.forge.shell.command.PluginRegistry;
+import org.jboss.seam.forge.shell.command.PluginRegistry.ResolutionCounter;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginRegistryTest
+{
+   private final CommandLibraryExtension library = new CommandLibraryExtension();
+   private final PluginMetadata plugin = library.getMetadataFor(MockNamedPlugin.class);
+
+   private PluginRegistry registry;
+   private Project project;
+   private long facetGeneration;
+   private Shell shell;
+
+   @Before
+   public void setUp()
+   {
+      registry = new PluginRegistry(library, null);
+      registry.init();
+      registry.addPlugin(plugin);
+
+      final PackagingFacet packaging = proxy(PackagingFacet.class, new InvocationHandler()
+      {
+         @Override
+         public Object invoke(final Object proxy, final Method method, final Object[] args)
+         {
+            return PackagingType.BASIC;
+         }
+      });
+      project = proxy(Project.class, new InvocationHandler()
+      {
+         @Override
+         public Object invoke(final Object proxy, final Method method, final Object[] args)
+         {
+            String name = method.getName();
+            if ("getFacetGeneration".equals(name))
+            {
+               return facetGeneration;
+            }
+            else if ("getFacet".equals(name))
+            {
+               return packaging;
+            }
+            else if ("getFacets".equals(name))
+            {
+               return new ArrayList<Object>();
+            }
+            else if ("hasAllFacets".equals(name))
+            {
+               return true;
+            }
+            throw new UnsupportedOperationException(name);
+         }
+      });
+      shell = proxy(Shell.class, new InvocationHandler()
+      {
+         @Override
+         public Object invoke(final Object proxy, final Method method, final Object[] args)
+         {
+            String name = method.getName();
+            if ("getCurrentProject".equals(name))
+            {
+               return project;
+            }
+            else if ("getCurrentResourceScope".equals(name))
+            {
+               return DirectoryResource.class;
+            }
+            throw new UnsupportedOperationException(name);
+         }
+      });
+   }
+
+   @Test
+   public void testRepeatedLookupsAreCached() throws Exception
+   {
+      assertSame(plugin, registry.getPluginMetadataForScopeAndConstraints("mnp", shell));
+      assertSame(plugin, registry.getPluginMetadataForScopeAndConstraints("mnp", shell));
+      assertSame(plugin, registry.getPluginMetadataForScopeAndConstraints("mnp", shell));
+
+      ResolutionCounter counter = registry.getResolutionCounters().get("mnp");
+      assertEquals(3, counter.getLookups());
+      assertEquals(1, counter.getMisses());
+   }
+
+   @Test
+   public void testFacetChangesInvalidateLookups() throws Exception
+   {
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+      facetGeneration++;
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+
+      assertEquals(2, registry.getResolutionCounters().get("mnp").getMisses());
+   }
+
+   @Test
+   public void testPackagingAndPOMChangesInvalidateLookups() throws Exception
+   {
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+      invalidate(new PackagingChanged(project, PackagingType.BASIC, PackagingType.WAR));
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+      invalidate(new FileModified(new File("README")));
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+      invalidate(new FileModified(new File("pom.xml")));
+      registry.getPluginMetadataForScopeAndConstraints("mnp", shell);
+
+      ResolutionCounter counter = registry.getResolutionCounters().get("mnp");
+      assertEquals(4, counter.getLookups());
+      assertEquals(3, counter.getMisses());
+   }
+
+   /*
+    * The observer methods are only called by the container.
+    */
+   private void invalidate(final Object event) throws Exception
+   {
+      Method observer = PluginRegistry.class.getDeclaredMethod("invalidate", event.getClass());
+      observer.setAccessible(true);
+      observer.invoke(registry, event);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> T proxy(final Class<T> type, final InvocationHandler handler)
+   {
+      return (T) Proxy.newProxyInstance(PluginRegistryTest.class.getClassLoader(), new Class<?>[] { type }, handler);
+   }
+}
@@ -25,7 +25,9 @@ package org.jboss.seam.forge.shell.test.fsh;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.seam.forge.shell.command.fshparser.FSHParser;
 import org.jboss.seam.forge.shell.command.fshparser.FSHRuntime;
+import org.jboss.seam.forge.shell.command.fshparser.LogicalStatement;
 import org.jboss.seam.forge.shell.command.fshparser.Parse;
+import org.jboss.seam.forge.shell.command.fshparser.ScriptNode;
 import org.jboss.seam.forge.test.AbstractShellTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,6 +35,9 @@ import org.junit.runner.RunWith;
 import javax.inject.Inject;
 import java.util.regex.Pattern;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
 /**
  * @author Mike Brock .
  */
@@ -144,6 +149,17 @@ public class FSHBasicTests extends AbstractShellTest
       System.out.println(s);
    }
 
+   @Test
+   public void testParsedScriptsAreReused()
+   {
+      String script = "for (i = 0; i < 2; i++) { @System.out.println(\"foo\"); }";
+      assertSame(runtime.parse(script), runtime.parse(script));
+
+      runtime.run(script);
+      ScriptNode node = (ScriptNode) ((LogicalStatement) runtime.parse(script)).getNest();
+      assertNotNull(node.getCompiledScript());
+   }
+
    public static void main(String[] args)
    {
       System.out.println(Pattern.compile("a(102|103)z").matcher("a103z").matches());
@@ -0,0 +1,180 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.seam.forge.shell.util.HistoryStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryStoreTest
+{
+   private File file;
+
+   @Before
+   public void createFile() throws IOException
+   {
+      file = File.createTempFile("forge-history", "");
+   }
+
+   @After
+   public void deleteFile()
+   {
+      file.delete();
+      new File(file.getPath() + ".lock").delete();
+   }
+
+   @Test
+   public void testOpenLoadsOnlyMostRecentEntries() throws Exception
+   {
+      Writer out = new FileWriter(file);
+      for (int i = 0; i < 10000; i++)
+      {
+         out.write("command " + i + "\n");
+      }
+      out.close();
+
+      HistoryStore store = new HistoryStore(file, 3);
+      List<String> entries = store.open();
+      store.close();
+
+      assertEquals(Arrays.asList("command 9997", "command 9998", "command 9999"), entries);
+   }
+
+   @Test
+   public void testAddedEntriesArePersistedOnClose() throws Exception
+   {
+      HistoryStore store = new HistoryStore(file, 10);
+      assertTrue(store.open().isEmpty());
+      store.add("ls");
+      store.add("cd ..");
+      store.close();
+
+      store = new HistoryStore(file, 10);
+      assertEquals(Arrays.asList("ls", "cd .."), store.open());
+      store.close();
+   }
+
+   @Test
+   public void testFileIsCompacted() throws Exception
+   {
+      HistoryStore store = new HistoryStore(file, 5);
+      store.open();
+      for (int i = 0; i < 100; i++)
+      {
+         store.add("command " + i);
+      }
+      store.close();
+
+      assertTrue(file.length() < 10 * "command 99\n".length());
+
+      store = new HistoryStore(file, 5);
+      assertEquals(Arrays.asList("command 95", "command 96", "command 97", "command 98", "command 99"), store.open());
+      store.close();
+   }
+
+   @Test
+   public void testUnterminatedLastLineIsKept() throws Exception
+   {
+      Writer out = new FileWriter(file);
+      out.write("first\nsecond");
+      out.close();
+
+      HistoryStore store = new HistoryStore(file, 10);
+      assertEquals(Arrays.asList("first", "second"), store.open());
+      store.add("third");
+      store.close();
+
+      store = new HistoryStore(file, 10);
+      assertEquals(Arrays.asList("first", "second", "third"), store.open());
+      store.close();
+   }
+
+   @Test
+   public void testCompactionKeepsLinesWrittenByAnotherStore() throws Exception
+   {
+      HistoryStore first = new HistoryStore(file, 2);
+      first.open();
+      first.add("a1");
+      first.add("a2");
+      first.add("a3");
+      awaitLines(3);
+
+      HistoryStore second = new HistoryStore(file, 2);
+      second.open();
+      second.add("b1");
+      second.close();
+
+      // the fourth line written by the first store triggers a compaction
+      first.add("a4");
+      first.close();
+
+      assertEquals(Arrays.asList("b1", "a4"), readLines());
+      for (String name : file.getAbsoluteFile().getParentFile().list())
+      {
+         assertFalse(name, name.startsWith(file.getName()) && name.endsWith(".tmp"));
+      }
+   }
+
+   private void awaitLines(final int count) throws Exception
+   {
+      long deadline = System.currentTimeMillis() + 5000;
+      while ((readLines().size() < count) && (System.currentTimeMillis() < deadline))
+      {
+         Thread.sleep(10);
+      }
+      assertEquals(count, readLines().size());
+   }
+
+   private List<String> readLines() throws IOException
+   {
+      List<String> lines = new ArrayList<String>();
+      BufferedReader reader = new BufferedReader(new FileReader(file));
+      try
+      {
+         String line;
+         while ((line = reader.readLine()) != null)
+         {
+            lines.add(line);
+         }
+      }
+      finally
+      {
+         reader.close();
+      }
+      return lines;
+   }
+}
@@ -0,0 +1,79 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jboss.seam.forge.shell.util.LineMatcher;
+import org.junit.Test;
+
+public class LineMatcherTest
+{
+   @Test
+   public void testLiteralFindsSubstringAnywhere() throws Exception
+   {
+      LineMatcher matcher = LineMatcher.compile("needle", false);
+      assertTrue(matcher.find("needle"));
+      assertTrue(matcher.find("a needle in a haystack"));
+      assertTrue(matcher.find("haystack needle"));
+      assertFalse(matcher.find("needl"));
+      assertFalse(matcher.find("Needle"));
+      assertFalse(matcher.find(""));
+   }
+
+   @Test
+   public void testLiteralIgnoreCase() throws Exception
+   {
+      LineMatcher matcher = LineMatcher.compile("NeeDle", true);
+      assertTrue(matcher.find("A NEEDLE"));
+      assertTrue(matcher.find("a needle"));
+      assertFalse(matcher.find("a noodle"));
+   }
+
+   @Test
+   public void testLiteralWithCharactersSharingLowByte() throws Exception
+   {
+      // U+0161 and 'a' share the low byte 0x61
+      LineMatcher matcher = LineMatcher.compile("x\u0161y", false);
+      assertTrue(matcher.find("aax\u0161yaa"));
+      assertFalse(matcher.find("aaxayaa"));
+   }
+
+   @Test
+   public void testEmptyPatternMatchesEverything() throws Exception
+   {
+      assertTrue(LineMatcher.compile("", false).find(""));
+      assertTrue(LineMatcher.compile("", false).find("anything"));
+   }
+
+   @Test
+   public void testRegexUsesFind() throws Exception
+   {
+      LineMatcher matcher = LineMatcher.compile("a(102|103)z", false);
+      assertTrue(matcher.find("xx a103z yy"));
+      assertFalse(matcher.find("a104z"));
+
+      assertTrue(LineMatcher.compile("^ERROR", true).find("error: failed"));
+      assertFalse(LineMatcher.compile("^ERROR", true).find("no error"));
+   }
+}
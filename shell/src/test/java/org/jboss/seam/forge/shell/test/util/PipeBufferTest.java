@@ -0,0 +1,111 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.seam.forge.shell.util.PipeBuffer;
+import org.junit.After;
+import org.junit.Test;
+
+public class PipeBufferTest
+{
+   private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+   @After
+   public void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   @Test(timeout = 10000)
+   public void testStreamsMoreDataThanFitsInBuffer() throws Exception
+   {
+      final PipeBuffer pipe = new PipeBuffer(16);
+      final int total = 100000;
+
+      Future<?> writer = executor.submit(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            byte[] chunk = new byte[7];
+            for (int i = 0; i < total; i += chunk.length)
+            {
+               for (int j = 0; j < chunk.length; j++)
+               {
+                  chunk[j] = (byte) (i + j);
+               }
+               pipe.write(chunk, 0, Math.min(chunk.length, total - i));
+            }
+            pipe.closeWrite();
+            return null;
+         }
+      });
+
+      InputStream in = pipe.getInputStream();
+      byte[] buffer = new byte[5];
+      int count = 0;
+      int read;
+      while ((read = in.read(buffer)) != -1)
+      {
+         for (int i = 0; i < read; i++)
+         {
+            assertEquals((byte) (count + i), buffer[i]);
+         }
+         count += read;
+      }
+
+      writer.get(1, TimeUnit.SECONDS);
+      assertEquals(total, count);
+   }
+
+   @Test(timeout = 10000)
+   public void testWritesAreDiscardedOnceReaderCloses() throws Exception
+   {
+      final PipeBuffer pipe = new PipeBuffer(16);
+      Future<?> writer = executor.submit(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            pipe.write(new byte[1024]);
+            pipe.closeWrite();
+            return null;
+         }
+      });
+
+      InputStream in = pipe.getInputStream();
+      assertEquals(0, in.read());
+      in.close();
+
+      writer.get(5, TimeUnit.SECONDS);
+      assertEquals(-1, in.read());
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.seam.forge.shell.ShellPrintWriter;
+import org.jboss.seam.forge.shell.util.ProcessBridge;
+import org.jboss.seam.forge.shell.util.ShellColor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessBridgeTest
+{
+   @Before
+   public void requireShell()
+   {
+      assumeTrue(new File("/bin/sh").exists());
+   }
+
+   @Test(timeout = 30000)
+   public void testFullStderrPipeDoesNotBlockStdout() throws Exception
+   {
+      LineCollector out = new LineCollector();
+      int status = ProcessBridge.execute(new String[] { "/bin/sh", "-c",
+               "i=0; while [ $i -lt 20000 ]; do echo error$i 1>&2; i=$((i+1)); done; echo done; exit 3" },
+               new File("").getAbsoluteFile(), out);
+
+      assertEquals(3, status);
+      assertEquals(20001, out.lines.size());
+      // stdout and stderr are pumped separately, so their lines may interleave in any order
+      assertTrue(out.lines.contains("done"));
+   }
+
+   @Test(timeout = 30000)
+   public void testUnterminatedLastLineIsForwarded() throws Exception
+   {
+      LineCollector out = new LineCollector();
+      ProcessBridge.execute(new String[] { "/bin/sh", "-c", "printf 'a\\r\\nb'" }, new File("").getAbsoluteFile(), out);
+
+      assertEquals("a", out.lines.get(0));
+      assertEquals("b", out.partial.toString());
+   }
+
+   private static class LineCollector implements ShellPrintWriter
+   {
+      private final List<String> lines = new ArrayList<String>();
+      private final StringBuilder partial = new StringBuilder();
+
+      @Override
+      public void print(final String s)
+      {
+         partial.append(s);
+      }
+
+      @Override
+      public void println(final String s)
+      {
+         lines.add(s);
+      }
+
+      @Override
+      public void println()
+      {
+         lines.add("");
+      }
+
+      @Override
+      public void print(final ShellColor color, final String s)
+      {
+         print(s);
+      }
+
+      @Override
+      public void println(final ShellColor color, final String s)
+      {
+         println(s);
+      }
+
+      @Override
+      public String renderColor(final ShellColor color, final String s)
+      {
+         return s;
+      }
+
+      @Override
+      public void write(final byte b)
+      {
+         partial.append((char) b);
+      }
+
+      @Override
+      public void write(final char[] b, final int off, final int len)
+      {
+         partial.append(b, off, len);
+      }
+
+      @Override
+      public void write(final CharSequence s, final int off, final int len)
+      {
+         partial.append(s, off, off + len);
+      }
+
+      @Override
+      public void flush()
+      {
+      }
+   }
+}
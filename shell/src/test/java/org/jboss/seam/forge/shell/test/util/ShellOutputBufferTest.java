@@ -0,0 +1,116 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.jboss.seam.forge.shell.util.ShellOutputBuffer;
+import org.junit.Test;
+
+public class ShellOutputBufferTest
+{
+   @Test
+   public void testSmallWritesAreBatched() throws Exception
+   {
+      CountingWriter writer = new CountingWriter();
+      ShellOutputBuffer buffer = new ShellOutputBuffer(writer, false, 64);
+
+      for (int i = 0; i < 100; i++)
+      {
+         buffer.write('x');
+      }
+      buffer.flush();
+
+      assertEquals(100, writer.toString().length());
+      assertEquals(2, writer.writes);
+   }
+
+   @Test
+   public void testLineFlushWritesCompleteLines() throws Exception
+   {
+      CountingWriter writer = new CountingWriter();
+      ShellOutputBuffer buffer = new ShellOutputBuffer(writer, true, 64);
+
+      buffer.write("partial", 0, 7);
+      assertEquals("", writer.toString());
+
+      buffer.write(" line\nnext".toCharArray(), 0, 10);
+      assertEquals("partial line\nnext", writer.toString());
+   }
+
+   @Test(timeout = 5000)
+   public void testPendingOutputIsFlushedAfterDelay() throws Exception
+   {
+      CountingWriter writer = new CountingWriter();
+      ShellOutputBuffer buffer = new ShellOutputBuffer(writer, false, 64);
+
+      buffer.write("prompt> ", 0, 8);
+      while (writer.flushes == 0)
+      {
+         Thread.sleep(10);
+      }
+      assertEquals("prompt> ", writer.toString());
+   }
+
+   @Test
+   public void testLargeWritesBypassBuffer() throws Exception
+   {
+      CountingWriter writer = new CountingWriter();
+      ShellOutputBuffer buffer = new ShellOutputBuffer(writer, false, 16);
+
+      buffer.write("ab", 0, 2);
+      buffer.write("0123456789abcdefghij", 2, 18);
+      buffer.flush();
+
+      assertEquals("ab23456789abcdefghij", writer.toString());
+      assertEquals(2, writer.writes);
+   }
+
+   private static class CountingWriter extends StringWriter
+   {
+      private volatile int writes;
+      private volatile int flushes;
+
+      @Override
+      public void write(final char[] cbuf, final int off, final int len)
+      {
+         writes++;
+         super.write(cbuf, off, len);
+      }
+
+      @Override
+      public StringWriter append(final CharSequence csq, final int start, final int end)
+      {
+         writes++;
+         return super.append(csq, start, end);
+      }
+
+      @Override
+      public void flush()
+      {
+         flushes++;
+         super.flush();
+      }
+   }
+}
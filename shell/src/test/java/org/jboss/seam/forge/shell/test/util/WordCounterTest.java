@@ -0,0 +1,113 @@
+/*
+ * JBoss, by Red Hat.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.seam.forge.shell.test.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.jboss.seam.forge.shell.util.WordCounter;
+import org.jboss.seam.forge.shell.util.WordCounter.Counts;
+import org.junit.Test;
+
+public class WordCounterTest
+{
+   private static final byte[] ALPHABET = { 'a', 'b', ' ', '\t', '\r', '\n', (byte) 0xC3, (byte) 0xA9 };
+
+   @Test
+   public void testStreamCounts() throws Exception
+   {
+      Counts counts = WordCounter.count(new ByteArrayInputStream("one two\r\nthree\n  four".getBytes()));
+      assertEquals(2, counts.getLines());
+      // a trailing word with no whitespace after it is not counted
+      assertEquals(3, counts.getWords());
+      assertEquals(21, counts.getBytes());
+   }
+
+   @Test
+   public void testSegmentedFileMatchesSequentialCount() throws Exception
+   {
+      byte[] data = new byte[4 * 1024 + 17];
+      Random random = new Random(42);
+      for (int i = 0; i < data.length; i++)
+      {
+         data[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+      }
+
+      File file = File.createTempFile("forge-wc", "");
+      try
+      {
+         OutputStream out = new FileOutputStream(file);
+         out.write(data);
+         out.close();
+
+         long[] expected = sequentialCount(data);
+         // small segments, so that words and line endings span many segment boundaries
+         for (long segmentSize : new long[] { 1, 2, 7, 100, 1024, data.length - 1, data.length })
+         {
+            Counts counts = WordCounter.count(file, segmentSize);
+            assertEquals("segment size " + segmentSize, expected[0], counts.getLines());
+            assertEquals("segment size " + segmentSize, expected[1], counts.getWords());
+            assertEquals("segment size " + segmentSize, expected[2], counts.getBytes());
+         }
+      }
+      finally
+      {
+         file.delete();
+      }
+   }
+
+   /**
+    * The original single-threaded algorithm of the wc command.
+    */
+   private static long[] sequentialCount(final byte[] data)
+   {
+      long lines = 0;
+      long words = 0;
+      boolean capture = false;
+      for (int i = 0; i < data.length; i++)
+      {
+         byte c = data[i];
+         if (Character.isWhitespace(c))
+         {
+            if (capture)
+            {
+               capture = false;
+               words++;
+            }
+            if (c == '\n')
+            {
+               lines++;
+            }
+         }
+         else
+         {
+            capture = true;
+         }
+      }
+      return new long[] { lines, words, data.length };
+   }
+}